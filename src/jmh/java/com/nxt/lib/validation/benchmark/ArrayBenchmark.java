@@ -0,0 +1,56 @@
+package com.nxt.lib.validation.benchmark;
+
+import com.nxt.lib.validation.core.*;
+import com.nxt.lib.validation.demo.model.Organization;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of an organization with {@code size} departments of one employee each,
+ * against the nested array rules of {@code validation/organization.json}
+ * <p>
+ * Messages are rendered in the benchmark so that the lazy rendering of invalid result
+ * is accounted for. Run with {@code mvn -Pjmh test}, see the {@code jmh} profile of the pom.
+ * @author Truong Ngo
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArrayBenchmark {
+
+    private static final String RULE = "validation/organization.json";
+
+    @Param({"1", "100", "10000", "100000"})
+    public int size;
+
+    @Param
+    public Payloads.Mix mix;
+
+    @Param({"COMPILED", "EXECUTOR"})
+    public RuleShapeBenchmark.Engine engine;
+
+    private CompiledRule rule;
+
+    private RuleConfiguration configuration;
+
+    private Organization payload;
+
+    @Setup
+    public void setup() {
+        rule = RuleRegistry.getValidator(RULE);
+        configuration = ValidationUtils.getRuleConfiguration(RULE);
+        payload = Payloads.organization(size, mix);
+    }
+
+    @Benchmark
+    public Object validate() {
+        ValidationResult result = engine == RuleShapeBenchmark.Engine.COMPILED ?
+                rule.validate(payload) :
+                new ValidationExecutor(configuration, payload).validate();
+        return result.getMessages();
+    }
+}
@@ -0,0 +1,69 @@
+package com.nxt.lib.validation.benchmark;
+
+import com.nxt.lib.validation.demo.model.Department;
+import com.nxt.lib.validation.demo.model.Employee;
+import com.nxt.lib.validation.demo.model.Organization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark payloads built from the demo model
+ * <p>
+ * Payloads are deterministic: in the {@link Mix#INVALID} mix 9 object out of 10 break
+ * their rule, so that both the success path and the message building path are measured.
+ * @author Truong Ngo
+ * */
+public final class Payloads {
+
+    /**
+     * Share of valid object in payload
+     * */
+    public enum Mix {
+        /** Every object is valid */
+        VALID,
+        /** 1 object out of 10 is valid */
+        INVALID;
+
+        boolean isValid(int index) {
+            return this == VALID || index % 10 == 0;
+        }
+    }
+
+    /**
+     * Prevent instantiate
+     * */
+    private Payloads() {}
+
+    static Employee employee(int index, Mix mix) {
+        Employee employee = new Employee();
+        employee.setName("employee-" + index);
+        employee.setAge(mix.isValid(index) ? 18 + index % 40 : 70);
+        employee.setEmail("employee-" + index + "@nxt.com");
+        return employee;
+    }
+
+    static Department department(int index, Mix mix) {
+        Department department = new Department();
+        department.setName(mix.isValid(index) ? "department-" + index : null);
+        department.setMaxSize(mix.isValid(index) ? 5 : 50);
+        department.setEmployees(new ArrayList<>(List.of(employee(index, mix))));
+        return department;
+    }
+
+    /**
+     * @param departments number of department, each with one employee
+     * */
+    static Organization organization(int departments, Mix mix) {
+        Organization organization = new Organization();
+        organization.setOrgName(mix == Mix.VALID ? "organization" : null);
+        organization.setTaxCode("tax");
+        organization.setAddress("address");
+        List<Department> list = new ArrayList<>(departments);
+        for (int i = 0; i < departments; i++) {
+            list.add(department(i, mix));
+        }
+        organization.setDepartments(list);
+        return organization;
+    }
+}
@@ -0,0 +1,74 @@
+package com.nxt.lib.validation.benchmark;
+
+import com.nxt.lib.validation.core.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of one object validated against each rule shape
+ * <p>
+ * {@code COMPILED} validate with the rule of {@code RuleRegistry}, {@code EXECUTOR} with
+ * {@code ValidationExecutor} which compile the configuration on every validation.
+ * Run with {@code mvn -Pjmh test}, see the {@code jmh} profile of the pom.
+ * @author Truong Ngo
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleShapeBenchmark {
+
+    /**
+     * Rule shape and the payload it validate
+     * */
+    public enum Shape {
+        BASIC("benchmark/basic.json"),
+        AND("validation/employee.json"),
+        OR("benchmark/or.json"),
+        CONDITIONAL("benchmark/conditional.json");
+
+        private final String rule;
+
+        Shape(String rule) {
+            this.rule = rule;
+        }
+    }
+
+    public enum Engine { COMPILED, EXECUTOR }
+
+    @Param
+    public Shape shape;
+
+    @Param
+    public Engine engine;
+
+    @Param
+    public Payloads.Mix mix;
+
+    private CompiledRule rule;
+
+    private RuleConfiguration configuration;
+
+    private Object payload;
+
+    @Setup
+    public void setup() {
+        rule = RuleRegistry.getValidator(shape.rule);
+        configuration = ValidationUtils.getRuleConfiguration(shape.rule);
+        payload = switch (shape) {
+            case BASIC, AND -> Payloads.employee(1, mix);
+            case OR -> Payloads.organization(0, mix);
+            case CONDITIONAL -> Payloads.department(1, mix);
+        };
+    }
+
+    @Benchmark
+    public ValidationResult validate() {
+        return engine == Engine.COMPILED ?
+                rule.validate(payload) :
+                new ValidationExecutor(configuration, payload).validate();
+    }
+}
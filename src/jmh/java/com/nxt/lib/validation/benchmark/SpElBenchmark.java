@@ -0,0 +1,62 @@
+package com.nxt.lib.validation.benchmark;
+
+import com.nxt.lib.utils.SpElExpression;
+import com.nxt.lib.utils.SpElUtils;
+import com.nxt.lib.validation.core.RuleConfiguration;
+import com.nxt.lib.validation.core.ValidationUtils;
+import com.nxt.lib.validation.demo.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one rule expression through each layer: {@code SpElUtils} string lookup,
+ * pre-parsed {@code SpElExpression} and {@code ValidationUtils}, interpreted or compiled
+ * <p>
+ * Run with {@code mvn -Pjmh test}, see the {@code jmh} profile of the pom.
+ * @author Truong Ngo
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpElBenchmark {
+
+    private static final String EXPRESSION = "age != null && age >= 18 && age <= 60";
+
+    @Param({"OFF", "IMMEDIATE"})
+    public SpelCompilerMode compilerMode;
+
+    private SpElExpression expression;
+
+    private RuleConfiguration configuration;
+
+    private Employee employee;
+
+    @Setup
+    public void setup() {
+        expression = SpElUtils.parse(EXPRESSION, compilerMode).orElseThrow();
+        configuration = new RuleConfiguration();
+        configuration.setTarget("age");
+        configuration.setRuleExpression(EXPRESSION);
+        employee = Payloads.employee(1, Payloads.Mix.VALID);
+    }
+
+    @Benchmark
+    public Object spElUtils() {
+        return SpElUtils.getValue(EXPRESSION, employee, Boolean.class, compilerMode);
+    }
+
+    @Benchmark
+    public Object parsedExpression() {
+        return expression.getValueOrNull(employee, Boolean.class);
+    }
+
+    @Benchmark
+    public boolean validationUtils() {
+        return ValidationUtils.getExpressionResult(configuration, expression, employee);
+    }
+}
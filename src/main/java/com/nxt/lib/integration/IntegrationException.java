@@ -2,6 +2,9 @@ package com.nxt.lib.integration;
 
 /**
  * Integration exception
+ * <p>
+ * Keep its stack trace: a configuration or runtime error, the place it is thrown from
+ * matter. Data rejected per request is reported by the stackless {@link IntegrationRejectedException}.
  * @author Truong Ngo
  * */
 public class IntegrationException extends RuntimeException {
@@ -20,4 +23,11 @@ public class IntegrationException extends RuntimeException {
         super(message, cause);
     }
 
+    /**
+     * Construct with message, cause exception, suppression and stack trace enabled or disabled
+     * */
+    protected IntegrationException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
 }
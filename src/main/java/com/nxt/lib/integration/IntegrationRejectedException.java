@@ -0,0 +1,20 @@
+package com.nxt.lib.integration;
+
+/**
+ * Integration exception throws when the data of a flow is rejected, e.g. an expression
+ * extract no value from the request
+ * <p>
+ * Stackless: it is thrown per request and only its message matter, configuration and
+ * runtime errors are reported by {@code IntegrationException} with their stack trace.
+ * @author Truong Ngo
+ * */
+public class IntegrationRejectedException extends IntegrationException {
+
+    /**
+     * Construct with message
+     * */
+    public IntegrationRejectedException(String message) {
+        super(message, null, false, false);
+    }
+
+}
@@ -2,12 +2,15 @@ package com.nxt.lib.integration.utils;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.nxt.lib.integration.IntegrationException;
+import com.nxt.lib.integration.IntegrationRejectedException;
 import com.nxt.lib.integration.ValueSource;
 import com.nxt.lib.integration.api.ApiConfiguration;
 import com.nxt.lib.integration.api.ApiRequest;
 import com.nxt.lib.utils.ClassUtils;
 import com.nxt.lib.utils.IOUtils;
+import com.nxt.lib.utils.SpElExpression;
 import com.nxt.lib.utils.SpElUtils;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
@@ -23,11 +26,31 @@ import java.util.stream.Collectors;
  * */
 public class IntegrationUtils {
 
+    /**
+     * SpEl compiler mode of integration expression, {@code OFF} by default
+     * */
+    private static volatile SpelCompilerMode compilerMode = SpelCompilerMode.OFF;
+
     /**
      * Prevent instantiate
      * */
     private IntegrationUtils() {}
 
+    /**
+     * @return SpEl compiler mode of integration expression
+     * */
+    public static SpelCompilerMode getCompilerMode() {
+        return compilerMode;
+    }
+
+    /**
+     * Set SpEl compiler mode of integration expression (condition, value extraction), opt-in
+     * @param mode compiler mode, {@code OFF} (default) to always interpret
+     * */
+    public static void setCompilerMode(SpelCompilerMode mode) {
+        compilerMode = Objects.requireNonNull(mode);
+    }
+
     /**
      * Get configuration from file path
      * @param path path to file
@@ -36,8 +59,9 @@ public class IntegrationUtils {
      * @throws IntegrationException if error occur
      * */
     public static <T> T getConfiguration(String path, Class<T> clazz) {
-        return IOUtils.getResource(path, clazz)
-                .orElseThrow(() -> new IntegrationException("Invalid flow: " + path));
+        T configuration = IOUtils.getResource(path, clazz).orElse(null);
+        if (Objects.isNull(configuration)) throw new IntegrationException("Invalid flow: " + path);
+        return configuration;
     }
 
     /**
@@ -48,8 +72,9 @@ public class IntegrationUtils {
      * @throws IntegrationException if path is invalid or configuration is invalid
      * */
     public static <T> T getConfiguration(String path, TypeReference<T> type) {
-        return IOUtils.getResource(path, type)
-                .orElseThrow(() -> new IntegrationException("Invalid flow: " + path));
+        T configuration = IOUtils.getResource(path, type).orElse(null);
+        if (Objects.isNull(configuration)) throw new IntegrationException("Invalid flow: " + path);
+        return configuration;
     }
 
     /**
@@ -60,22 +85,27 @@ public class IntegrationUtils {
      * @throws IntegrationException if path is invalid or configuration is invalid
      * */
     public static Object extractValue(String expression, Object context) {
-        return SpElUtils.getValue(expression, context)
-                .orElseThrow(() -> new IntegrationException("Invalid expression string: " + expression));
-
+        return extractValue(expression, context, null);
     }
 
     /**
      * Extract value base on SpEl expression from given context
+     * <p>
+     * The expression is evaluated in a new writable context (see {@link SpElUtils#createEvaluationContext(SpelCompilerMode)}),
+     * it may assign variables and properties of the context object.
      * @param expression: SpEl expression as extractor
      * @param context: context for extraction
      * @param clazz: desired type
      * @return value extracted as {@link T} type
-     * @throws IntegrationException if error occur in expression parsing process
+     * @throws IntegrationException if the expression syntax is invalid
+     * @throws IntegrationRejectedException if the expression extract no value from context
      * */
     public static <T> T extractValue(String expression, Object context, Class<T> clazz) {
-        return SpElUtils.getValue(expression, context, clazz)
-                .orElseThrow(() -> new IntegrationException("Invalid expression string: " + expression));
+        SpElExpression parsed = SpElUtils.parse(expression, compilerMode).orElse(null);
+        if (Objects.isNull(parsed)) throw new IntegrationException("Invalid expression string: " + expression);
+        T value = parsed.getValueOrNull(SpElUtils.createEvaluationContext(compilerMode), context, clazz);
+        if (Objects.isNull(value)) throw new IntegrationRejectedException("Invalid expression string: " + expression);
+        return value;
     }
 
     /**
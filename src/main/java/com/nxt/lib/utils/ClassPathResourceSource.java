@@ -0,0 +1,37 @@
+package com.nxt.lib.utils;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Class path resource source, prefix {@code classpath}
+ * <p>
+ * Source of every location string given to {@link IOUtils}. Class path does not change at runtime so the parsed
+ * value is cacheable.
+ * @author Truong Ngo
+ * */
+public class ClassPathResourceSource implements ResourceSource {
+
+    public static final String PREFIX = "classpath";
+
+    @Override
+    public String getPrefix() {
+        return PREFIX;
+    }
+
+    @Override
+    public <T> T read(String location, ObjectMapper mapper, JavaType type) throws IOException {
+        try (InputStream in = new ClassPathResource(location).getInputStream()) {
+            return mapper.readValue(in, type);
+        }
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+}
@@ -1,9 +1,17 @@
 package com.nxt.lib.utils;
 
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.TypeDescriptor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -18,6 +26,40 @@ public class ClassUtils {
     private ClassUtils() {
     }
 
+    /**
+     * Getters by property name, per class. Absent getter is cached as empty
+     * */
+    private static final ClassValue<Map<String, Optional<Getter>>> GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<Getter>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Fields by name including the ones of super classes, per class. Built once, read only
+     * */
+    private static final ClassValue<Map<String, FieldAccessor>> FIELDS = new ClassValue<>() {
+        @Override
+        protected Map<String, FieldAccessor> computeValue(Class<?> type) {
+            return indexFields(type);
+        }
+    };
+
+    /**
+     * Instance fields including the ones of super classes and the shadowed ones, per class.
+     * Final fields get a setter too, for {@link #copyFields(Object, Object)} only
+     * */
+    private static final ClassValue<List<FieldAccessor>> INSTANCE_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<FieldAccessor> computeValue(Class<?> type) {
+            return getAllFields(type).stream()
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                    .map(field -> createAccessor(field, true))
+                    .toList();
+        }
+    };
+
     /**
      * Wrapper type collections
      * */
@@ -60,18 +102,16 @@ public class ClassUtils {
 
     /**
      * Get field by field name
+     * <p>
+     * Field of the class shadow the field of the same name in super class. Fields are indexed
+     * once per class and made accessible if the module allows it
      * @param clazz class that need to get field
      * @param fieldName field name
      * @return match field otherwise null
      * */
     public static Field getField(Class<?> clazz, String fieldName) {
-        List<Field> fields = getAllFields(clazz);
-        return fields
-                .stream()
-                .peek(f -> f.setAccessible(true))
-                .filter(f -> f.getName().equals(fieldName))
-                .findFirst()
-                .orElse(null);
+        FieldAccessor accessor = FIELDS.get(clazz).get(fieldName);
+        return accessor == null ? null : accessor.field();
     }
 
     /**
@@ -82,12 +122,331 @@ public class ClassUtils {
      * @throws X if field is not found
      * */
     public static <X extends Throwable> Field getFieldOrElseThrow(Class<?> clazz, String fieldName, Supplier<X> exSupplier) throws X {
-        List<Field> fields = getAllFields(clazz);
-        return fields
-                .stream()
-                .peek(f -> f.setAccessible(true))
-                .filter(f -> f.getName().equals(fieldName))
-                .findFirst()
-                .orElseThrow(exSupplier);
+        Field field = getField(clazz, fieldName);
+        if (field == null) throw exSupplier.get();
+        return field;
+    }
+
+    /**
+     * Get the reader of an instance field as method handle of type {@code (Object)Object}
+     * <p>
+     * Calling the handle with {@code invokeExact} read the field without the access check and
+     * boxing of reflective {@code Field.get}, once JIT-ed it is as fast as a direct read.
+     * @param clazz class declaring or inheriting the field
+     * @param fieldName field name
+     * @return field reader, null if there is no such instance field or it is not accessible
+     * */
+    public static MethodHandle getFieldGetter(Class<?> clazz, String fieldName) {
+        FieldAccessor accessor = FIELDS.get(clazz).get(fieldName);
+        return accessor == null ? null : accessor.getter();
+    }
+
+    /**
+     * Get the writer of an instance field as method handle of type {@code (Object,Object)void}
+     * @param clazz class declaring or inheriting the field
+     * @param fieldName field name
+     * @return field writer, null if there is no such instance field, it is final or not accessible
+     * */
+    public static MethodHandle getFieldSetter(Class<?> clazz, String fieldName) {
+        FieldAccessor accessor = FIELDS.get(clazz).get(fieldName);
+        return accessor == null ? null : accessor.setter();
+    }
+
+    /**
+     * Field and its handles, handles are null if they cannot be created
+     * */
+    private record FieldAccessor(Field field, MethodHandle getter, MethodHandle setter) {}
+
+    /**
+     * Index the fields of class and its super classes by name
+     * */
+    private static Map<String, FieldAccessor> indexFields(Class<?> clazz) {
+        Map<String, FieldAccessor> fields = new HashMap<>();
+        for (Field field : getAllFields(clazz)) {
+            fields.putIfAbsent(field.getName(), createAccessor(field, false));
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /**
+     * Check if every instance field of class, including the final and inherited ones, can be
+     * read and written by {@link #copyFields(Object, Object)}
+     * @param clazz checked class
+     * @return true if instances of class can be copied field by field
+     * */
+    public static boolean canCopyFields(Class<?> clazz) {
+        for (FieldAccessor field : INSTANCE_FIELDS.get(clazz)) {
+            if (field.getter() == null || field.setter() == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Shallow copy every instance field of source into target, including the final, inherited
+     * and shadowed ones, whether they have accessor methods or not
+     * <p>
+     * Target must be a new instance of the class of source not yet published to other threads,
+     * final fields are written the way deserialization frameworks do.
+     * @param source copied object
+     * @param target new instance of the class of source
+     * @throws IllegalArgumentException if target is not of the class of source or a field
+     * cannot be copied, see {@link #canCopyFields(Class)}
+     * */
+    public static void copyFields(Object source, Object target) {
+        if (source.getClass() != target.getClass()) {
+            throw new IllegalArgumentException("Cannot copy " + source.getClass().getName() + " into " + target.getClass().getName());
+        }
+        for (FieldAccessor field : INSTANCE_FIELDS.get(source.getClass())) {
+            if (field.getter() == null || field.setter() == null) {
+                throw new IllegalArgumentException("Cannot copy field " + field.field().getName() + " of " + source.getClass().getName());
+            }
+            try {
+                field.setter().invokeExact(target, (Object) field.getter().invokeExact(source));
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("Cannot copy field " + field.field().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Make field accessible and create its handles
+     * @param writeFinal create a setter for final field too
+     * */
+    private static FieldAccessor createAccessor(Field field, boolean writeFinal) {
+        if (!field.trySetAccessible() || Modifier.isStatic(field.getModifiers())) {
+            return new FieldAccessor(field, null, null);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle getter = null;
+        MethodHandle setter = null;
+        try {
+            getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+            if (writeFinal || !Modifier.isFinal(field.getModifiers())) {
+                setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            }
+        } catch (IllegalAccessException e) {
+            // Keep the field without handles
+        }
+        return new FieldAccessor(field, getter, setter);
+    }
+
+    /**
+     * Get the getter of a property as method handle of type {@code (Object)Object}
+     * <p>
+     * The getter is the public, non-static, no-arg method {@code getName()}, {@code isName()}
+     * returning boolean or {@code name()}, looked up in the same order as SpEl reflective
+     * property accessor. Handle is cached per class and property name.
+     * @param clazz class declaring or inheriting the getter
+     * @param propertyName property name
+     * @return getter handle, null if the class has no getter for the property
+     * */
+    public static MethodHandle getGetter(Class<?> clazz, String propertyName) {
+        Getter getter = getPropertyGetter(clazz, propertyName);
+        return getter == null ? null : getter.handle();
+    }
+
+    /**
+     * Get the getter method of a property, same lookup as {@link #getGetter(Class, String)}
+     * @param clazz class declaring or inheriting the getter
+     * @param propertyName property name
+     * @return getter method, null if the class has no getter for the property
+     * */
+    public static Method getGetterMethod(Class<?> clazz, String propertyName) {
+        Getter getter = getPropertyGetter(clazz, propertyName);
+        return getter == null ? null : getter.method();
+    }
+
+    /**
+     * Get the getter of a property with its method, handle and declared type, same lookup
+     * as {@link #getGetter(Class, String)} and from the same cache
+     * @param clazz class declaring or inheriting the getter
+     * @param propertyName property name
+     * @return getter, null if the class has no getter for the property
+     * */
+    public static Getter getPropertyGetter(Class<?> clazz, String propertyName) {
+        Map<String, Optional<Getter>> getters = GETTERS.get(clazz);
+        Optional<Getter> getter = getters.get(propertyName);
+        if (getter == null) {
+            getter = Optional.ofNullable(findGetter(clazz, propertyName));
+            getters.put(propertyName, getter);
+        }
+        return getter.orElse(null);
+    }
+
+    /**
+     * Getter of a property
+     * @param method getter method
+     * @param handle getter handle of type {@code (Object)Object}
+     * @param type declared return type of the getter, with its generics
+     * */
+    public record Getter(Method method, MethodHandle handle, TypeDescriptor type) {}
+
+    /**
+     * Look up the getter of property
+     * */
+    private static Getter findGetter(Class<?> clazz, String propertyName) {
+        if (propertyName.isEmpty()) return null;
+        String capitalized = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        List<String> suffixes = propertyName.length() > 1 && Character.isUpperCase(propertyName.charAt(1)) ?
+                List.of(propertyName, capitalized) : List.of(capitalized);
+        Method method = null;
+        for (Iterator<String> it = suffixes.iterator(); method == null && it.hasNext(); ) {
+            method = findPublicMethod(clazz, "get" + it.next());
+        }
+        for (Iterator<String> it = suffixes.iterator(); method == null && it.hasNext(); ) {
+            method = findPublicMethod(clazz, "is" + it.next());
+            if (method != null && method.getReturnType() != boolean.class && method.getReturnType() != Boolean.class) method = null;
+        }
+        if (method == null) method = findPublicMethod(clazz, propertyName); // Record style accessor
+        if (method == null || method.getReturnType() == void.class) return null;
+        try {
+            method.trySetAccessible();
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+            return new Getter(method, handle, new TypeDescriptor(new MethodParameter(method, -1)));
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return public non-static no-arg method of class, null if not found
+     * */
+    private static Method findPublicMethod(Class<?> clazz, String name) {
+        try {
+            Method method = clazz.getMethod(name);
+            return Modifier.isStatic(method.getModifiers()) ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hash code of object content, consistent with {@link #contentEquals(Object, Object)}
+     * <p>
+     * Value types of the JDK (string, number, enum, date...) are hashed by their own
+     * {@code hashCode}, arrays, collections and maps by their elements in iteration order
+     * and any other object by the content of all its instance fields, read through the
+     * cached field handles. An object having a field that cannot be read is hashed by
+     * identity. Object graph with cycle is supported.
+     * @param o object, may be null
+     * @return content hash code
+     * */
+    public static int contentHashCode(Object o) {
+        return contentHashCode(o, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /**
+     * Compare the content of two objects
+     * <p>
+     * Two objects are equal if they are the same instance, are equal value types of the JDK,
+     * or are of the same class with content equal arrays, collections and maps elements (in
+     * iteration order) or instance fields. User defined {@code equals} is never called, an
+     * equality by id does not make two objects with different content equal. An object having
+     * a field that cannot be read is only equal to itself.
+     * @param a first object, may be null
+     * @param b second object, may be null
+     * @return true if both objects have the same content
+     * */
+    public static boolean contentEquals(Object a, Object b) {
+        return contentEquals(a, b, new IdentityHashMap<>());
+    }
+
+    private static int contentHashCode(Object o, Set<Object> visited) {
+        if (o == null) return 0;
+        Class<?> type = o.getClass();
+        if (isValueType(type)) return o.hashCode();
+        if (!visited.add(o)) return 1;
+        try {
+            return contentHashCode(o, type, visited);
+        } finally {
+            visited.remove(o);
+        }
+    }
+
+    /**
+     * @param visited objects being hashed, an object met again while it is hashed close a cycle
+     * */
+    private static int contentHashCode(Object o, Class<?> type, Set<Object> visited) {
+        int hash = type.hashCode();
+        if (type.isArray()) {
+            for (int i = 0, length = Array.getLength(o); i < length; i++) {
+                hash = 31 * hash + contentHashCode(Array.get(o, i), visited);
+            }
+        } else if (o instanceof Collection<?> collection) {
+            for (Object element : collection) hash = 31 * hash + contentHashCode(element, visited);
+        } else if (o instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                hash = 31 * hash + contentHashCode(entry.getKey(), visited);
+                hash = 31 * hash + contentHashCode(entry.getValue(), visited);
+            }
+        } else {
+            for (FieldAccessor field : INSTANCE_FIELDS.get(type)) {
+                if (field.getter() == null) return System.identityHashCode(o);
+                hash = 31 * hash + contentHashCode(readField(field, o), visited);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @param compared pairs being compared, a pair met again is assumed equal
+     * */
+    private static boolean contentEquals(Object a, Object b, Map<Object, Object> compared) {
+        if (a == b) return true;
+        if (a == null || b == null || a.getClass() != b.getClass()) return false;
+        Class<?> type = a.getClass();
+        if (isValueType(type)) return a.equals(b);
+        if (compared.get(a) == b) return true;
+        compared.put(a, b);
+        if (type.isArray()) {
+            int length = Array.getLength(a);
+            if (length != Array.getLength(b)) return false;
+            for (int i = 0; i < length; i++) {
+                if (!contentEquals(Array.get(a, i), Array.get(b, i), compared)) return false;
+            }
+            return true;
+        }
+        if (a instanceof Collection<?> first && b instanceof Collection<?> second) {
+            return first.size() == second.size() && iterationEquals(first.iterator(), second.iterator(), compared);
+        }
+        if (a instanceof Map<?, ?> first && b instanceof Map<?, ?> second) {
+            return first.size() == second.size() && iterationEquals(first.entrySet().iterator(), second.entrySet().iterator(), compared);
+        }
+        for (FieldAccessor field : INSTANCE_FIELDS.get(type)) {
+            if (field.getter() == null || !contentEquals(readField(field, a), readField(field, b), compared)) return false;
+        }
+        return true;
+    }
+
+    private static boolean iterationEquals(Iterator<?> first, Iterator<?> second, Map<Object, Object> compared) {
+        while (first.hasNext() && second.hasNext()) {
+            Object a = first.next();
+            Object b = second.next();
+            if (a instanceof Map.Entry<?, ?> x && b instanceof Map.Entry<?, ?> y) {
+                if (!contentEquals(x.getKey(), y.getKey(), compared) || !contentEquals(x.getValue(), y.getValue(), compared)) return false;
+            } else if (!contentEquals(a, b, compared)) {
+                return false;
+            }
+        }
+        return !first.hasNext() && !second.hasNext();
+    }
+
+    /**
+     * @return true if type is compared with its own equals: a JDK type other than array,
+     * collection and map, or an enum
+     * */
+    private static boolean isValueType(Class<?> type) {
+        if (type.isEnum()) return true;
+        if (type.isArray() || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) return false;
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    private static Object readField(FieldAccessor field, Object target) {
+        try {
+            return (Object) field.getter().invokeExact(target);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot read field " + field.field().getName(), e);
+        }
     }
 }
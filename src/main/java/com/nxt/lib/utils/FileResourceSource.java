@@ -0,0 +1,33 @@
+package com.nxt.lib.utils;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * File system resource source, prefix {@code file}, opt-in see {@link IOUtils#getSource(String)}
+ * <p>
+ * The file is streamed into the parser. It can be rebuilt at any time so the parsed value is
+ * never cached.
+ * @author Truong Ngo
+ * */
+public class FileResourceSource implements ResourceSource {
+
+    public static final String PREFIX = "file";
+
+    @Override
+    public String getPrefix() {
+        return PREFIX;
+    }
+
+    @Override
+    public <T> T read(String location, ObjectMapper mapper, JavaType type) throws IOException {
+        try (InputStream in = Files.newInputStream(Path.of(location))) {
+            return mapper.readValue(in, type);
+        }
+    }
+}
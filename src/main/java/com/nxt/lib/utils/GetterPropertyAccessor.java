@@ -0,0 +1,61 @@
+package com.nxt.lib.utils;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypedValue;
+
+/**
+ * Read only SpEl property accessor calling the cached getter handles of {@link ClassUtils#getPropertyGetter(Class, String)}
+ * <p>
+ * Spring only reuse the accessor found for a property node if it is one of the accessors of
+ * the evaluation context, the per-member accessor created by {@code ReflectivePropertyAccessor}
+ * never is, so an interpreted expression look its properties up again on every evaluation.
+ * This accessor is its own cached accessor: once a node resolved to it, reading the property
+ * is a class value lookup and a handle call.
+ * <p>
+ * Values are typed by the getter return type (with its generics), narrowed to the value class
+ * like {@code ReflectivePropertyAccessor} does, so conversions and method resolution see the
+ * same type whichever accessor read the property.
+ * <p>
+ * Not compilable: use it for interpreted expression only, compiled expression call the
+ * getter directly anyway.
+ * @see SpElUtils#getEvaluationContext()
+ * @author Truong Ngo
+ * */
+public class GetterPropertyAccessor implements PropertyAccessor {
+
+    @Override
+    public Class<?>[] getSpecificTargetClasses() {
+        return null;
+    }
+
+    @Override
+    public boolean canRead(EvaluationContext context, Object target, String name) {
+        return target != null && !(target instanceof Class<?>) && ClassUtils.getPropertyGetter(target.getClass(), name) != null;
+    }
+
+    @Override
+    public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+        ClassUtils.Getter getter = target == null ? null : ClassUtils.getPropertyGetter(target.getClass(), name);
+        if (getter == null) throw new AccessException("No getter for property " + name);
+        try {
+            Object value = (Object) getter.handle().invokeExact(target);
+            TypeDescriptor type = getter.type();
+            return new TypedValue(value, value == null || value.getClass() == type.getType() ? type : type.narrow(value));
+        } catch (Throwable e) {
+            throw new AccessException("Cannot read property " + name, e instanceof Exception ex ? ex : new RuntimeException(e));
+        }
+    }
+
+    @Override
+    public boolean canWrite(EvaluationContext context, Object target, String name) {
+        return false;
+    }
+
+    @Override
+    public void write(EvaluationContext context, Object target, String name, Object newValue) throws AccessException {
+        throw new AccessException("Property is read only: " + name);
+    }
+}
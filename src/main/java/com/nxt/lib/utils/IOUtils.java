@@ -1,58 +1,249 @@
 package com.nxt.lib.utils;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.core.io.ClassPathResource;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * IO Utility
+ * <p>
+ * Json is read with one shared {@link ObjectMapper}, parsed straight from the stream. The
+ * mapper register the Blackbird module when it is on the class path, which bind properties
+ * through generated lambdas instead of reflection.
+ * <p>
+ * Resource given by a location string is always read from the class path, an optional
+ * {@code classpath:} prefix is ignored: the location may come from a request (e.g. a flow name)
+ * and must not reach the file system. Other {@link ResourceSource} are opt-in, the caller pass
+ * the source explicitly to {@link #getResource(ResourceSource, String, Class)}: {@code file}
+ * is built in, other source can be registered or declared through {@link ServiceLoader} and looked up with
+ * {@link #getSource(String)}.
+ * <p>
+ * Resource of a cacheable source (class path) does not change at runtime so its parsed JSON
+ * tree is cached by location, up to {@link #RESOURCE_CACHE_SIZE} most recently used resources:
+ * loading the same flow or rule again skip the reading and parsing, the value is bound from
+ * the tree on every call so each caller get its own instance and may modify it. The cache can
+ * be disabled with {@link #setResourceCache(boolean)}. File system resource is never cached
+ * as it can be edited.
  * @author Truong Ngo
  * */
 public class IOUtils {
 
+    /**
+     * Blackbird module class, registered if present
+     * */
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    /**
+     * Shared mapper
+     * */
+    private static final ObjectMapper MAPPER = createObjectMapper();
+
+    /**
+     * Class path source of the location string overloads
+     * */
+    private static final ResourceSource CLASS_PATH = new ClassPathResourceSource();
+
+    /**
+     * File system source of {@link #getFile(Path, Class)}
+     * */
+    private static final ResourceSource FILE = new FileResourceSource();
+
+    /**
+     * Opt-in resource sources keyed by prefix
+     * */
+    private static final Map<String, ResourceSource> SOURCES = createSources();
+
+    /**
+     * Maximum number of parsed class path resource kept in cache
+     * */
+    public static final int RESOURCE_CACHE_SIZE = 256;
+
+    /**
+     * Parsed class path resources keyed by location, never handed out
+     * */
+    private static final LruCache<ResourceKey, JsonNode> RESOURCES = new LruCache<>(RESOURCE_CACHE_SIZE);
+
+    /**
+     * Cache parsed class path resource, true by default
+     * */
+    private static volatile boolean resourceCache = true;
+
     /**
      * Prevent instantiate
      * */
     private IOUtils() {}
 
     /**
-     * Get resource from class path
+     * @return shared mapper, must not be reconfigured
+     * */
+    public static ObjectMapper getObjectMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * @return true if parsed class path resource is cached
+     * */
+    public static boolean isResourceCache() {
+        return resourceCache;
+    }
+
+    /**
+     * Enable or disable the cache of parsed class path resource, disabling it clear the cache
+     * @param enabled true to cache parsed class path resource
+     * */
+    public static void setResourceCache(boolean enabled) {
+        resourceCache = enabled;
+        if (!enabled) RESOURCES.invalidateAll();
+    }
+
+    /**
+     * Remove every parsed class path resource from cache
+     * */
+    public static void clearResourceCache() {
+        RESOURCES.invalidateAll();
+    }
+
+    /**
+     * Register a resource source, replacing the source of the same prefix if any
+     * @param source resource source
+     * */
+    public static void registerSource(ResourceSource source) {
+        SOURCES.put(source.getPrefix(), source);
+    }
+
+    /**
+     * Get a built-in, registered or declared resource source
+     * @param prefix prefix of the source, e.g. {@code file}
+     * @return source of the prefix, empty if there is none
+     * */
+    public static Optional<ResourceSource> getSource(String prefix) {
+        return Optional.ofNullable(SOURCES.get(prefix));
+    }
+
+    /**
+     * Get resource from class path, e.g. {@code rules/org.json}
      * @param clazz : desire {@link Class<T>}
-     * @param path: path to resource file
+     * @param path: class path location of resource file, the {@code classpath:} prefix is optional
      * @return desire resource
      * */
     public static <T> Optional<T> getResource(String path, Class<T> clazz) {
-        try {
-            ClassPathResource resource = new ClassPathResource(path);
-            InputStream in = resource.getInputStream();
-            T result = new ObjectMapper().readValue(in.readAllBytes(), clazz);
-            in.close();
-            return Optional.of(result);
-        } catch (IOException e) {
-            return Optional.empty();
-        }
+        return getResource(CLASS_PATH, stripClassPathPrefix(path), clazz);
     }
 
     /**
      * Get resource from class path<br/>
      * Use when the data is generic type like {@link java.util.List}, {@link java.util.Map} etc...
      * @param type : desire {@link TypeReference<T>}
-     * @param path: path to resource file
+     * @param path: class path location of resource file, the {@code classpath:} prefix is optional
      * @return desire resource
      * */
     public static <T> Optional<T> getResource(String path, TypeReference<T> type) {
+        return getResource(CLASS_PATH, stripClassPathPrefix(path), type);
+    }
+
+    /**
+     * Get resource from an explicit source, e.g. a file through {@code getSource("file")}
+     * <p>
+     * Location is passed to the source as is, it must not come from an untrusted input
+     * @param source : source reading the resource
+     * @param location : location of resource in the source, without prefix
+     * @param clazz : desire {@link Class<T>}
+     * @return desire resource, empty if it cannot be read or parsed
+     * */
+    public static <T> Optional<T> getResource(ResourceSource source, String location, Class<T> clazz) {
+        return Optional.ofNullable(clazz.cast(getResource(source, location, MAPPER.constructType(clazz))));
+    }
+
+    /**
+     * Get resource from an explicit source<br/>
+     * Use when the data is generic type like {@link java.util.List}, {@link java.util.Map} etc...
+     * @param source : source reading the resource
+     * @param location : location of resource in the source, without prefix
+     * @param type : desire {@link TypeReference<T>}
+     * @return desire resource, empty if it cannot be read or parsed
+     * */
+    @SuppressWarnings("unchecked")
+    public static <T> Optional<T> getResource(ResourceSource source, String location, TypeReference<T> type) {
+        return Optional.ofNullable((T) getResource(source, location, MAPPER.constructType(type)));
+    }
+
+    /**
+     * Get resource from file system
+     * @param clazz : desire {@link Class<T>}
+     * @param path: path to resource file
+     * @return desire resource, empty if the file cannot be read or parsed
+     * */
+    public static <T> Optional<T> getFile(Path path, Class<T> clazz) {
+        return getResource(FILE, path.toString(), clazz);
+    }
+
+    /**
+     * @return class path location without its {@code classpath:} prefix
+     * */
+    private static String stripClassPathPrefix(String path) {
+        String prefix = ClassPathResourceSource.PREFIX + ":";
+        return path.startsWith(prefix) ? path.substring(prefix.length()) : path;
+    }
+
+    /**
+     * Bind resource from its cached tree, or parse it with the source
+     * @return parsed resource, null if it cannot be read or parsed
+     * */
+    private static Object getResource(ResourceSource source, String location, JavaType type) {
         try {
-            ClassPathResource resource = new ClassPathResource(path);
-            InputStream in = resource.getInputStream();
-            T result = new ObjectMapper().readValue(in.readAllBytes(), type);
-            in.close();
-            return Optional.of(result);
-        } catch (Exception e) {
-            return Optional.empty();
+            if (!resourceCache || !source.isCacheable()) return source.read(location, MAPPER, type);
+            ResourceKey key = new ResourceKey(source.getPrefix(), location);
+            JsonNode tree = RESOURCES.getIfPresent(key);
+            if (tree == null) {
+                tree = source.read(location, MAPPER, MAPPER.constructType(JsonNode.class));
+                if (tree == null) return null;
+                RESOURCES.put(key, tree);
+            }
+            return MAPPER.treeToValue(tree, type);
+        } catch (IOException | RuntimeException e) {
+            return null;
         }
     }
+
+    /**
+     * Create the built-in sources and the ones declared through {@link ServiceLoader}
+     * */
+    private static Map<String, ResourceSource> createSources() {
+        Map<String, ResourceSource> sources = new ConcurrentHashMap<>();
+        for (ResourceSource source : List.of(CLASS_PATH, FILE)) {
+            sources.put(source.getPrefix(), source);
+        }
+        for (ResourceSource source : ServiceLoader.load(ResourceSource.class, IOUtils.class.getClassLoader())) {
+            sources.put(source.getPrefix(), source);
+        }
+        return sources;
+    }
+
+    /**
+     * Create the shared mapper
+     * */
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        try {
+            mapper.registerModule((Module) Class.forName(BLACKBIRD_MODULE).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Blackbird is optional, bind with reflection
+        }
+        return mapper;
+    }
+
+    /**
+     * Cache key of parsed resource
+     * */
+    private record ResourceKey(String prefix, String location) {}
 }
@@ -0,0 +1,301 @@
+package com.nxt.lib.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe cache with least-recently-used eviction
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap} and linked in access order in a doubly
+ * linked list, eldest first. Reads are lock free: a hit is a single map lookup, the entry
+ * is moved to the end of the list only if the list lock is free at that time, so under
+ * contention the order is approximate instead of blocking the reader. Insert link the
+ * entry and evict from the head of the list under the lock, in constant time.
+ * <p>
+ * Loader run outside any lock, so a loader may itself read the cache (e.g. a rule that
+ * load its nested rule). Two threads missing the same key at the same time may both run
+ * the loader, the first inserted value win and is returned to both.
+ * @param <K> key type
+ * @param <V> value type
+ * @author Truong Ngo
+ * */
+public class LruCache<K, V> {
+
+    /**
+     * Maximum number of entry
+     * */
+    private final int maxSize;
+
+    /**
+     * Cache storage
+     * */
+    private final ConcurrentHashMap<K, Node<K, V>> storage;
+
+    /**
+     * Guard the access order list
+     * */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Least and most recently used entry, guarded by {@link #lock}
+     * */
+    private Node<K, V> head, tail;
+
+    /**
+     * Hit counter
+     * */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Miss counter
+     * */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Eviction counter
+     * */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Construct cache with maximum size
+     * @param maxSize maximum number of entry, must be positive
+     * */
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        this.maxSize = maxSize;
+        this.storage = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+    }
+
+    /**
+     * Get value of key, load and cache it if absent
+     * @param key cache key
+     * @param loader compute the value from key, must not return null
+     * @return cached or loaded value
+     * @throws RuntimeException any exception throws by loader, nothing is cached in that case
+     * */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Node<K, V> node = storage.get(key);
+        if (Objects.nonNull(node)) {
+            hitCount.increment();
+            touch(node);
+            return node.value;
+        }
+        missCount.increment();
+        V value = Objects.requireNonNull(loader.apply(key), "Cache loader return null value");
+        Node<K, V> created = new Node<>(key, value);
+        Node<K, V> exist = storage.putIfAbsent(key, created);
+        if (Objects.nonNull(exist)) {
+            touch(exist);
+            return exist.value;
+        }
+        link(created, null);
+        return value;
+    }
+
+    /**
+     * Get value of key without loading
+     * @param key cache key
+     * @return cached value or null if absent
+     * */
+    public V getIfPresent(K key) {
+        Node<K, V> node = storage.get(key);
+        if (Objects.isNull(node)) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        touch(node);
+        return node.value;
+    }
+
+    /**
+     * Check if key is cached, without affecting the access order nor the statistic
+     * @param key cache key
+     * @return true if the key has a value in cache
+     * */
+    public boolean containsKey(K key) {
+        return storage.containsKey(key);
+    }
+
+    /**
+     * Put value into cache, replace the exist one if any
+     * @param key cache key
+     * @param value cache value, must not be null
+     * */
+    public void put(K key, V value) {
+        Node<K, V> created = new Node<>(key, Objects.requireNonNull(value));
+        link(created, storage.put(key, created));
+    }
+
+    /**
+     * Remove the entry of key
+     * @param key cache key
+     * */
+    public void invalidate(K key) {
+        Node<K, V> removed = storage.remove(key);
+        if (Objects.isNull(removed)) return;
+        lock.lock();
+        try {
+            unlink(removed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove all entry
+     * */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            storage.clear();
+            for (Node<K, V> node = head; node != null; ) {
+                Node<K, V> next = node.next;
+                node.prev = node.next = null;
+                node.linked = false;
+                node = next;
+            }
+            head = tail = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return snapshot of all entry, not affecting the access order
+     * */
+    public Map<K, V> asMap() {
+        Map<K, V> snapshot = new LinkedHashMap<>();
+        storage.forEach((key, node) -> snapshot.put(key, node.value));
+        return snapshot;
+    }
+
+    /**
+     * @return current number of entry
+     * */
+    public int size() {
+        return storage.size();
+    }
+
+    /**
+     * @return snapshot of cache statistic
+     * */
+    public Stats stats() {
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount.sum(), storage.size(), maxSize);
+    }
+
+    /**
+     * Move the entry to the end of the list if nobody else hold the lock
+     * <p>
+     * The racy read of {@code tail} only skip the lock for the most recent entry, it is checked again under the lock
+     * */
+    private void touch(Node<K, V> node) {
+        if (tail == node || !lock.tryLock()) return;
+        try {
+            if (node.linked && tail != node) {
+                unlink(node);
+                linkLast(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Link the inserted entry in place of the replaced one, then remove the least recently
+     * used entries until the cache fit its maximum size
+     * */
+    private void link(Node<K, V> created, Node<K, V> replaced) {
+        lock.lock();
+        try {
+            if (Objects.nonNull(replaced)) unlink(replaced);
+            if (storage.get(created.key) == created) linkLast(created);
+            while (storage.size() > maxSize && Objects.nonNull(head)) {
+                Node<K, V> eldest = head;
+                unlink(eldest);
+                if (storage.remove(eldest.key, eldest)) {
+                    evictionCount.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void linkLast(Node<K, V> node) {
+        node.prev = tail;
+        node.next = null;
+        if (Objects.isNull(tail)) head = node;
+        else tail.next = node;
+        tail = node;
+        node.linked = true;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (!node.linked) return;
+        if (Objects.isNull(node.prev)) head = node.next;
+        else node.prev.next = node.next;
+        if (Objects.isNull(node.next)) tail = node.prev;
+        else node.next.prev = node.prev;
+        node.prev = node.next = null;
+        node.linked = false;
+    }
+
+    /**
+     * Cache entry, linked in access order
+     * */
+    private static final class Node<K, V> {
+
+        private final K key;
+
+        private final V value;
+
+        /**
+         * Guarded by the list lock
+         * */
+        private Node<K, V> prev, next;
+
+        private boolean linked;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Cache statistic
+     *
+     * @param hitCount      number of lookup that found a value
+     * @param missCount     number of lookup that did not find a value
+     * @param evictionCount number of entry removed because of the size bound
+     * @param size          current number of entry
+     * @param maxSize       maximum number of entry
+     */
+    public record Stats(long hitCount, long missCount, long evictionCount, int size, int maxSize) {
+
+        /**
+         * @return ratio of hit over all lookup, 1.0 if there is no lookup yet
+         * */
+        public double hitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 1.0 : (double) hitCount / total;
+        }
+
+        /**
+         * Combine statistic of two cache
+         * @param other statistic of other cache
+         * @return sum of both statistic
+         * */
+        public Stats plus(Stats other) {
+            return new Stats(
+                    hitCount + other.hitCount, missCount + other.missCount,
+                    evictionCount + other.evictionCount, size + other.size, maxSize + other.maxSize);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.nxt.lib.utils;
+
+import org.springframework.expression.*;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Evaluation context that cannot be modified, by the caller nor by the expressions
+ * <p>
+ * Property accessors are fixed at construction, variable assignment ({@code #name = ...})
+ * fails with a {@code SpelEvaluationException} and no variable is defined but
+ * {@code #this} and {@code #root}. Methods, constructors, types, conversion and comparison
+ * are the ones of {@link StandardEvaluationContext}. The context hold no evaluation state
+ * (the root object is passed per evaluation), it is safe to share between threads.
+ * <p>
+ * The context only prevent writes it takes part in: writing a property is also refused by
+ * the accessors given, which must be read only, see {@link SpElUtils#getEvaluationContext()}.
+ * @author Truong Ngo
+ * */
+public class ReadOnlyEvaluationContext implements EvaluationContext {
+
+    /**
+     * Standard context providing the resolvers, never exposed so never modified
+     * */
+    private final StandardEvaluationContext delegate = new StandardEvaluationContext();
+
+    private final List<PropertyAccessor> propertyAccessors;
+
+    /**
+     * Construct with property accessors, tried in order
+     * @param propertyAccessors read only property accessors
+     * */
+    public ReadOnlyEvaluationContext(List<? extends PropertyAccessor> propertyAccessors) {
+        this.propertyAccessors = List.copyOf(propertyAccessors);
+        // Create the lazily created parts up front so that the delegate is only read once published
+        delegate.getConstructorResolvers();
+        delegate.getMethodResolvers();
+        delegate.getTypeLocator();
+        delegate.getTypeConverter();
+    }
+
+    @Override
+    public TypedValue getRootObject() {
+        return TypedValue.NULL;
+    }
+
+    @Override
+    public List<PropertyAccessor> getPropertyAccessors() {
+        return propertyAccessors;
+    }
+
+    @Override
+    public List<ConstructorResolver> getConstructorResolvers() {
+        return delegate.getConstructorResolvers();
+    }
+
+    @Override
+    public List<MethodResolver> getMethodResolvers() {
+        return delegate.getMethodResolvers();
+    }
+
+    @Override
+    public BeanResolver getBeanResolver() {
+        return null;
+    }
+
+    @Override
+    public TypeLocator getTypeLocator() {
+        return delegate.getTypeLocator();
+    }
+
+    @Override
+    public TypeConverter getTypeConverter() {
+        return delegate.getTypeConverter();
+    }
+
+    @Override
+    public TypeComparator getTypeComparator() {
+        return delegate.getTypeComparator();
+    }
+
+    @Override
+    public OperatorOverloader getOperatorOverloader() {
+        return delegate.getOperatorOverloader();
+    }
+
+    @Override
+    public TypedValue assignVariable(String name, Supplier<TypedValue> valueSupplier) {
+        throw new SpelEvaluationException(SpelMessage.VARIABLE_ASSIGNMENT_NOT_SUPPORTED, "#" + name);
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        throw new SpelEvaluationException(SpelMessage.VARIABLE_ASSIGNMENT_NOT_SUPPORTED, "#" + name);
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        return null;
+    }
+}
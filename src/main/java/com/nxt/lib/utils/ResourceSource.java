@@ -0,0 +1,43 @@
+package com.nxt.lib.utils;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Source of json resource read by {@link IOUtils}
+ * <p>
+ * Location strings are always read from the class path, a source is only used when the caller
+ * pass it explicitly to {@link IOUtils#getResource(ResourceSource, String, Class)}, so a location
+ * from an untrusted input never reach another source. Built-in sources are
+ * {@link ClassPathResourceSource} and {@link FileResourceSource}, other source can be
+ * registered with {@link IOUtils#registerSource(ResourceSource)} or declared in
+ * {@code META-INF/services/com.nxt.lib.utils.ResourceSource}, and are looked up by their
+ * prefix with {@link IOUtils#getSource(String)}.
+ * @author Truong Ngo
+ * */
+public interface ResourceSource {
+
+    /**
+     * @return name of this source, e.g. {@code file}
+     * */
+    String getPrefix();
+
+    /**
+     * Read and parse a resource
+     * @param location location of the resource, without the prefix
+     * @param mapper mapper used to parse the resource
+     * @param type desire type
+     * @return parsed resource
+     * @throws IOException if the resource cannot be read or parsed
+     * */
+    <T> T read(String location, ObjectMapper mapper, JavaType type) throws IOException;
+
+    /**
+     * @return true if the resource cannot change at runtime so {@link IOUtils} may cache its parsed tree
+     * */
+    default boolean isCacheable() {
+        return false;
+    }
+}
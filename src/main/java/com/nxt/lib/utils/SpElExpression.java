@@ -0,0 +1,235 @@
+package com.nxt.lib.utils;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Parsed SpEl expression that may be compiled to bytecode
+ * <p>
+ * When the expression is parsed with a compiler mode other than {@link SpelCompilerMode#OFF}
+ * Spring compile it after a warm-up (one interpretation for {@code IMMEDIATE}, a hundred
+ * for {@code MIXED}) and then run the generated bytecode instead of walking the AST.
+ * <p>
+ * Expression that cannot be compiled simply keep being interpreted. If the compiled code
+ * fails at runtime (e.g. the root type changed), the evaluation is retried on an
+ * interpreted copy of the expression, and after {@link #MAX_COMPILED_FAILURES} failures
+ * the expression is pinned to interpretation for good.
+ * <p>
+ * Without an explicit evaluation context the expression is evaluated in the shared read-only
+ * context of {@link SpElUtils#getEvaluationContext(SpelCompilerMode)}, compiled or not, so
+ * it read the same properties and map keys in every mode.
+ * <p>
+ * Instance is obtained from {@link SpElUtils#parse(String, SpelCompilerMode)} and is thread-safe.
+ * @see SpElUtils
+ * @author Truong Ngo
+ * */
+public final class SpElExpression {
+
+    /**
+     * Number of compiled run failure before the expression is pinned to interpretation
+     * */
+    public static final int MAX_COMPILED_FAILURES = 10;
+
+    /**
+     * Number of time the compiled state is checked before giving up
+     * */
+    private static final int MAX_COMPILE_PROBES = 3;
+
+    /**
+     * Number of interpretation Spring wait for before compiling in mixed mode
+     * */
+    private static final int MIXED_COMPILE_THRESHOLD = 100;
+
+    /**
+     * The parsed expression
+     * */
+    private final SpelExpression expression;
+
+    /**
+     * Compiler mode of the parser that created the expression
+     * */
+    private final SpelCompilerMode compilerMode;
+
+    /**
+     * Create the interpreted copy of expression, use as fallback
+     * */
+    private final Supplier<Expression> interpretedFactory;
+
+    /**
+     * Interpreted copy of expression, created on first fallback
+     * */
+    private volatile Expression interpreted;
+
+    /**
+     * Indicate that the expression is known to run as bytecode
+     * */
+    private volatile boolean compiled;
+
+    /**
+     * Indicate that the expression must not run as bytecode anymore
+     * */
+    private volatile boolean interpretOnly;
+
+    /**
+     * Racy counters, they only drive the compiled state probing
+     * */
+    private int evaluations, probes, compiledFailures;
+
+    /**
+     * Construct the expression
+     * @param expression parsed expression
+     * @param compilerMode compiler mode of the parser
+     * @param interpretedFactory create the interpreted copy of expression
+     * */
+    SpElExpression(SpelExpression expression, SpelCompilerMode compilerMode, Supplier<Expression> interpretedFactory) {
+        this.expression = expression;
+        this.compilerMode = compilerMode;
+        this.interpretedFactory = interpretedFactory;
+        this.interpretOnly = compilerMode == SpelCompilerMode.OFF;
+    }
+
+    /**
+     * @return root node of the parsed expression
+     * */
+    public SpelNode getAST() {
+        return expression.getAST();
+    }
+
+    /**
+     * @return the expression string
+     * */
+    public String getExpressionString() {
+        return expression.getExpressionString();
+    }
+
+    /**
+     * @return compiler mode of the expression
+     * */
+    public SpelCompilerMode getCompilerMode() {
+        return compilerMode;
+    }
+
+    /**
+     * @return true if the expression was seen running as bytecode
+     * */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Get value base on the expression from given context
+     * @param context: extraction's context
+     * @return value extracted as {@code Optional} of {@link Object} type
+     * */
+    public Optional<Object> getValue(Object context) {
+        return getValue(context, null);
+    }
+
+    /**
+     * Get value base on the expression from given context
+     * @param context: extraction's context
+     * @param clazz: return type, null to get the raw value
+     * @return optional of {@link T} type, empty if the evaluation failed
+     * */
+    public <T> Optional<T> getValue(Object context, Class<T> clazz) {
+        return Optional.ofNullable(getValueOrNull(context, clazz));
+    }
+
+    /**
+     * Get value base on the expression from given context, without wrapping it
+     * <p>
+     * Use on the validation hot path where the {@code Optional} is an allocation per evaluation
+     * @param context: extraction's context
+     * @param clazz: return type, null to get the raw value
+     * @return value of {@link T} type, null if the value is null or the evaluation failed
+     * */
+    public <T> T getValueOrNull(Object context, Class<T> clazz) {
+        return getValueOrNull(null, context, clazz);
+    }
+
+    /**
+     * Get value base on the expression from given context, evaluated in an evaluation context
+     * <p>
+     * Use to evaluate with custom property accessors, note that Spring does not compile
+     * expression whose property is read by an accessor that is not compilable
+     * @param evaluationContext: evaluation context, null for the shared one of the compiler mode
+     * @param context: extraction's context, the root object
+     * @param clazz: return type, null to get the raw value
+     * @return value of {@link T} type, null if the value is null or the evaluation failed
+     * */
+    public <T> T getValueOrNull(EvaluationContext evaluationContext, Object context, Class<T> clazz) {
+        if (interpretOnly) {
+            return interpret(evaluationContext, context, clazz);
+        }
+        try {
+            T value = evaluate(expression, Objects.isNull(evaluationContext) ? SpElUtils.getEvaluationContext(compilerMode) : evaluationContext, context, clazz);
+            afterEvaluation();
+            return value;
+        } catch (SpelEvaluationException e) {
+            if (e.getMessageCode() == SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                return fallback(evaluationContext, context, clazz);
+            }
+            return null;
+        } catch (EvaluationException | IllegalAccessError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Check if Spring has compiled the expression once the warm-up is over
+     * */
+    private void afterEvaluation() {
+        if (compiled || probes >= MAX_COMPILE_PROBES) return;
+        int threshold = compilerMode == SpelCompilerMode.IMMEDIATE ? 1 : MIXED_COMPILE_THRESHOLD;
+        if (++evaluations > threshold) {
+            probes++;
+            compiled = expression.compileExpression();
+        }
+    }
+
+    /**
+     * Compiled code failed, run the interpreted copy instead
+     * */
+    private <T> T fallback(EvaluationContext evaluationContext, Object context, Class<T> clazz) {
+        compiled = false;
+        if (++compiledFailures >= MAX_COMPILED_FAILURES) {
+            interpretOnly = true;
+            expression.revertToInterpreted();
+        }
+        return interpret(evaluationContext, context, clazz);
+    }
+
+    /**
+     * Evaluate the interpreted copy of expression, in the shared context of {@link SpElUtils#getEvaluationContext()}
+     * if no context is given
+     * */
+    private <T> T interpret(EvaluationContext evaluationContext, Object context, Class<T> clazz) {
+        Expression exp = interpreted;
+        if (Objects.isNull(exp)) {
+            exp = compilerMode == SpelCompilerMode.OFF ? expression : interpretedFactory.get();
+            interpreted = exp;
+        }
+        try {
+            return evaluate(exp, Objects.isNull(evaluationContext) ? SpElUtils.getEvaluationContext() : evaluationContext, context, clazz);
+        } catch (EvaluationException | IllegalAccessError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Evaluate expression in the evaluation context
+     * */
+    private static <T> T evaluate(Expression exp, EvaluationContext evaluationContext, Object context, Class<T> clazz) {
+        return exp.getValue(evaluationContext, context, clazz);
+    }
+}
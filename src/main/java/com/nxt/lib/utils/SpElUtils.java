@@ -1,24 +1,108 @@
 package com.nxt.lib.utils;
 
-import org.springframework.expression.EvaluationException;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.ParseException;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.Assign;
+import org.springframework.expression.spel.ast.OpDec;
+import org.springframework.expression.spel.ast.OpInc;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Spring Expression Language utility
+ * <p>
+ * Parsed expression is cached by its string in a bounded, least-recently-used cache
+ * and the parser is shared, so the same expression is only parsed once no matter
+ * how many time it is evaluated. Both the parser and the parsed expression are thread-safe.
+ * Invalid expression is cached too, as an empty result: its {@code ParseException} is only
+ * thrown once and not on every evaluation of a broken rule.
+ * <p>
+ * Each {@link SpelCompilerMode} has its own parser and cache, so a subsystem can choose
+ * to run its expressions as generated bytecode ({@code IMMEDIATE}, {@code MIXED}) or
+ * always interpreted ({@code OFF}, the default of method without mode parameter).
+ * <p>
+ * Expressions are evaluated in shared read-only contexts with the same semantic in every
+ * mode, see {@link #getEvaluationContext(SpelCompilerMode)}: an expression writing anything
+ * fails there. Callers that only read (validation rules) refuse such expression up front with
+ * {@link #isWriting(SpElExpression)}, callers whose expressions may write (integration flows)
+ * evaluate them in a context of their own, see {@link #createEvaluationContext(SpelCompilerMode)}.
+ * @see SpElExpression
  * @author Truong Ngo
  * */
 public class SpElUtils {
 
+    /**
+     * Maximum number of parsed expression kept in cache, per compiler mode
+     * */
+    public static final int EXPRESSION_CACHE_SIZE = 1024;
+
+    /**
+     * Shared parser of each compiler mode
+     * */
+    private static final Map<SpelCompilerMode, SpelExpressionParser> PARSERS = new EnumMap<>(SpelCompilerMode.class);
+
+    /**
+     * Parsed expressions of each compiler mode keyed by expression string, empty if the syntax is invalid
+     * */
+    private static final Map<SpelCompilerMode, LruCache<String, Optional<SpElExpression>>> EXPRESSIONS = new EnumMap<>(SpelCompilerMode.class);
+
+    /**
+     * Shared evaluation context of interpreted expression
+     * */
+    private static final EvaluationContext EVALUATION_CONTEXT = new ReadOnlyEvaluationContext(List.of(
+            new ReadOnlyMapAccessor(), new GetterPropertyAccessor(), new ReflectivePropertyAccessor(false)));
+
+    /**
+     * Shared evaluation context of expression that may be compiled
+     * */
+    private static final EvaluationContext COMPILABLE_EVALUATION_CONTEXT = new ReadOnlyEvaluationContext(List.of(
+            new ReadOnlyMapAccessor(), new ReflectivePropertyAccessor(false)));
+
+    /**
+     * Accessors of writable evaluation context of interpreted expression, shared so that expression nodes keep their accessor
+     * */
+    private static final List<PropertyAccessor> WRITABLE_ACCESSORS = List.of(
+            new MapAccessor(), new GetterPropertyAccessor(), new ReflectivePropertyAccessor());
+
+    /**
+     * Accessors of writable evaluation context of expression that may be compiled
+     * */
+    private static final List<PropertyAccessor> COMPILABLE_WRITABLE_ACCESSORS = List.of(
+            new MapAccessor(), new ReflectivePropertyAccessor());
+
+    static {
+        ClassLoader classLoader = SpElUtils.class.getClassLoader();
+        for (SpelCompilerMode mode : SpelCompilerMode.values()) {
+            PARSERS.put(mode, new SpelExpressionParser(new SpelParserConfiguration(mode, classLoader)));
+            EXPRESSIONS.put(mode, new LruCache<>(EXPRESSION_CACHE_SIZE));
+        }
+    }
+
     /**
      * Prevent instantiate
      * */
     private SpElUtils() {}
 
+    /**
+     * Parse expression or get it from cache
+     * @param expression: SpEl expression string
+     * @param mode: compiler mode of expression
+     * @return parsed expression, empty if the expression syntax is invalid
+     * */
+    public static Optional<SpElExpression> parse(String expression, SpelCompilerMode mode) {
+        return EXPRESSIONS.get(mode).get(expression, exp -> doParse(exp, mode));
+    }
+
     /**
      * Get value base on SpEl expression from given context
      * @param expression: SpEl expression as extractor
@@ -26,13 +110,18 @@ public class SpElUtils {
      * @return value extracted as {@code Optional} of {@link Object} type
      * */
     public static Optional<Object> getValue(String expression, Object context) {
-        try {
-            ExpressionParser parser = new SpelExpressionParser();
-            Expression exp = parser.parseExpression(expression);
-            return Optional.ofNullable(exp.getValue(context));
-        } catch (ParseException | EvaluationException | IllegalAccessError e) {
-            return Optional.empty();
-        }
+        return getValue(expression, context, SpelCompilerMode.OFF);
+    }
+
+    /**
+     * Get value base on SpEl expression from given context
+     * @param expression: SpEl expression as extractor
+     * @param context: extraction's context
+     * @param mode: compiler mode of expression
+     * @return value extracted as {@code Optional} of {@link Object} type
+     * */
+    public static Optional<Object> getValue(String expression, Object context, SpelCompilerMode mode) {
+        return parse(expression, mode).flatMap(exp -> exp.getValue(context));
     }
 
     /**
@@ -43,12 +132,146 @@ public class SpElUtils {
      * @return optional of {@link T} type
      * */
     public static <T> Optional<T> getValue(String expression, Object context, Class<T> clazz) {
+        return getValue(expression, context, clazz, SpelCompilerMode.OFF);
+    }
+
+    /**
+     * Get value base on SpEl expression from given context
+     * @param expression: SpEl expression as extractor
+     * @param context: extraction's context
+     * @param clazz: return type
+     * @param mode: compiler mode of expression
+     * @return optional of {@link T} type
+     * */
+    public static <T> Optional<T> getValue(String expression, Object context, Class<T> clazz, SpelCompilerMode mode) {
+        return parse(expression, mode).flatMap(exp -> exp.getValue(context, clazz));
+    }
+
+    /**
+     * Report the compiled state of cached expression parsed with compiler enabled
+     * @return expression string mapped to true if it runs as bytecode, false if it is still interpreted
+     * */
+    public static Map<String, Boolean> getCompilationReport() {
+        Map<String, Boolean> report = new LinkedHashMap<>();
+        EXPRESSIONS.forEach((mode, cache) -> {
+            if (mode != SpelCompilerMode.OFF) {
+                cache.asMap().forEach((exp, parsed) -> parsed.ifPresent(
+                        value -> report.merge(exp, value.isCompiled(), Boolean::logicalOr)));
+            }
+        });
+        return report;
+    }
+
+    /**
+     * @return expression cache statistic (hit rate, eviction count, ...) of all compiler mode
+     * */
+    public static LruCache.Stats cacheStats() {
+        return EXPRESSIONS.values().stream()
+                .map(LruCache::stats)
+                .reduce(LruCache.Stats::plus)
+                .orElseThrow();
+    }
+
+    /**
+     * Get the evaluation context shared by interpreted expressions
+     * <p>
+     * Properties are read by {@link MapAccessor} for map keys, then by {@link GetterPropertyAccessor}
+     * through cached getter handles (model class, {@code ValueSource}...), then reflectively for
+     * public fields. The resolved accessor is kept by each expression node, so the property is
+     * not looked up again on the next evaluation, whatever the expression.
+     * <p>
+     * The context is a {@link ReadOnlyEvaluationContext}: no variable can be assigned and no
+     * accessor can write, so nothing an expression does is seen by the next evaluation and it
+     * is safe to share between threads.
+     * @return shared evaluation context
+     * */
+    public static EvaluationContext getEvaluationContext() {
+        return EVALUATION_CONTEXT;
+    }
+
+    /**
+     * Get the evaluation context shared by expressions of a compiler mode
+     * <p>
+     * Same as {@link #getEvaluationContext()} for {@link SpelCompilerMode#OFF}. Other modes read
+     * map keys with {@link MapAccessor} then properties reflectively, both compilable, since
+     * Spring cannot compile a property read by {@link GetterPropertyAccessor}. The properties
+     * and map keys read are the same in every mode and so is the result of an expression.
+     * @param mode compiler mode of the expression
+     * @return shared read only evaluation context
+     * */
+    public static EvaluationContext getEvaluationContext(SpelCompilerMode mode) {
+        return mode == SpelCompilerMode.OFF ? EVALUATION_CONTEXT : COMPILABLE_EVALUATION_CONTEXT;
+    }
+
+    /**
+     * Create an evaluation context for expressions that may write, e.g. integration flows
+     * <p>
+     * Read the same properties and map keys as {@link #getEvaluationContext(SpelCompilerMode)},
+     * and also write them and assign variables. The context is not shared: use a new one per
+     * evaluation (or per flow) so that nothing an expression write leak into another one.
+     * @param mode compiler mode of the expression
+     * @return new writable evaluation context
+     * */
+    public static EvaluationContext createEvaluationContext(SpelCompilerMode mode) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setPropertyAccessors(mode == SpelCompilerMode.OFF ? WRITABLE_ACCESSORS : COMPILABLE_WRITABLE_ACCESSORS);
+        return context;
+    }
+
+    /**
+     * Check if expression write anything: assign a variable, a property or an element, or
+     * increment or decrement it
+     * @param expression parsed expression
+     * @return true if the expression write, it then fails in the shared read-only contexts
+     * */
+    public static boolean isWriting(SpElExpression expression) {
+        return isWriting(expression.getAST());
+    }
+
+    /**
+     * Map accessor that never write
+     * */
+    private static final class ReadOnlyMapAccessor extends MapAccessor {
+
+        @Override
+        public boolean canWrite(EvaluationContext context, Object target, String name) {
+            return false;
+        }
+
+        @Override
+        public void write(EvaluationContext context, Object target, String name, Object newValue) throws AccessException {
+            throw new AccessException("Map is read only: " + name);
+        }
+    }
+
+    /**
+     * Remove all parsed expression from cache
+     * */
+    public static void clearCache() {
+        EXPRESSIONS.values().forEach(LruCache::invalidateAll);
+    }
+
+    /**
+     * Parse expression with the parser of mode
+     * @return parsed expression, empty if the expression syntax is invalid
+     * */
+    private static Optional<SpElExpression> doParse(String expression, SpelCompilerMode mode) {
         try {
-            ExpressionParser parser = new SpelExpressionParser();
-            Expression exp = parser.parseExpression(expression);
-            return Optional.ofNullable(exp.getValue(context, clazz));
-        } catch (ParseException | EvaluationException | IllegalAccessError e) {
+            SpelExpression parsed = PARSERS.get(mode).parseRaw(expression);
+            return Optional.of(new SpElExpression(parsed, mode, () -> PARSERS.get(SpelCompilerMode.OFF).parseRaw(expression)));
+        } catch (ParseException e) {
             return Optional.empty();
         }
     }
+
+    /**
+     * @return true if the node or one of its children assign a variable, a property or an element
+     * */
+    private static boolean isWriting(SpelNode node) {
+        if (node instanceof Assign || node instanceof OpInc || node instanceof OpDec) return true;
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (isWriting(node.getChild(i))) return true;
+        }
+        return false;
+    }
 }
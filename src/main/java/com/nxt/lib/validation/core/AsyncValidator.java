@@ -0,0 +1,79 @@
+package com.nxt.lib.validation.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Asynchronous entry point of validation, for non-blocking caller
+ * <p>
+ * The rule is taken from {@code RuleRegistry} and evaluated on the executor of
+ * {@link ValidationSettings#getAsyncExecutor()} (virtual thread when available), so a
+ * rule reading a slow bean does not hold the calling thread. Failure of the validation
+ * process itself ({@code ValidationException} for invalid rule) complete the stage
+ * exceptionally.
+ * @see ReactiveValidator
+ * @author Truong Ngo
+ * */
+public class AsyncValidator {
+
+    /**
+     * Prevent instantiate
+     * */
+    private AsyncValidator() {}
+
+    /**
+     * Validate an object asynchronously
+     * @param rulePath rule of the object
+     * @param context object need to be validated
+     * @return stage completed with the result of validation process
+     * */
+    public static CompletionStage<ValidationResult> validate(String rulePath, Object context) {
+        return CompletableFuture.supplyAsync(
+                () -> RuleRegistry.getValidator(rulePath).validate(context),
+                ValidationSettings.getAsyncExecutor());
+    }
+
+    /**
+     * Validate an object asynchronously against a compiled rule
+     * @param rule compiled rule
+     * @param context object need to be validated
+     * @return stage completed with the result of validation process
+     * */
+    public static CompletionStage<ValidationResult> validate(CompiledRule rule, Object context) {
+        return CompletableFuture.supplyAsync(() -> rule.validate(context), ValidationSettings.getAsyncExecutor());
+    }
+
+    /**
+     * Validate the value of a stage once it is completed
+     * <p>
+     * The returned future is created by {@link CompletableFuture#newIncompleteFuture()} of the
+     * stage future, so it has the class of a {@code CompletableFuture} subclass overriding it.
+     * Cancelling the returned future cancel the future of the stage (the stage itself if it is
+     * a {@code CompletableFuture}), so that the producer of the value can stop.
+     * @param rule compiled rule
+     * @param stage stage of the object need to be validated
+     * @return future completed with the same value if it is valid, completed exceptionally with
+     * {@code ValidationRejectedException} otherwise, or with the failure of the stage
+     * */
+    public static <T> CompletableFuture<T> validated(CompiledRule rule, CompletionStage<T> stage) {
+        CompletableFuture<T> source = stage.toCompletableFuture();
+        CompletableFuture<T> validated = source.newIncompleteFuture();
+        source.whenCompleteAsync((value, error) -> {
+            if (error != null) {
+                validated.completeExceptionally(error);
+                return;
+            }
+            try {
+                ValidationResult result = rule.validate(value);
+                if (result.isValid()) validated.complete(value);
+                else validated.completeExceptionally(new ValidationRejectedException(result.getMessages()));
+            } catch (RuntimeException e) {
+                validated.completeExceptionally(e);
+            }
+        }, ValidationSettings.getAsyncExecutor());
+        validated.whenComplete((value, error) -> {
+            if (validated.isCancelled()) source.cancel(true);
+        });
+        return validated;
+    }
+}
@@ -0,0 +1,28 @@
+package com.nxt.lib.validation.core;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a batch validation
+ *
+ * @param total    number of object validated
+ * @param valid    number of valid object
+ * @param invalid  number of invalid object
+ * @param elapsed  wall time of the batch
+ * @param results  result of every object in input order, empty if only failures are kept
+ * @param failures result of invalid object keyed by their index in input, in input order
+ * @see BatchValidator
+ * @author Truong Ngo
+ */
+public record BatchValidationResult(long total, long valid, long invalid, Duration elapsed,
+                                    List<ValidationResult> results, Map<Long, ValidationResult> failures) {
+
+    /**
+     * @return true if every object of the batch is valid
+     * */
+    public boolean isValid() {
+        return invalid == 0;
+    }
+}
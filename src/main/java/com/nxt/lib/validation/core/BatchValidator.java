@@ -0,0 +1,324 @@
+package com.nxt.lib.validation.core;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Validate a large number of object against the same rule, e.g. rows of an ingestion job
+ * <p>
+ * The rule is taken from {@code RuleRegistry} once per batch and its compiled form is
+ * shared by every object. Input is consumed lazily in chunks, at most {@code parallelism}
+ * chunks are validated at the same time on {@link ValidationSettings#getParallelPool()},
+ * so an unbounded {@code Stream} is validated with a bounded memory. With parallelism 1
+ * the batch runs on the calling thread.
+ * <p>
+ * Result keep the input order whatever the parallelism. A validator is immutable and
+ * can be reused for many batches.
+ * @see BatchValidationResult
+ * @author Truong Ngo
+ * */
+public class BatchValidator {
+
+    /**
+     * Number of object validated by one task
+     * */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /**
+     * Rule of the batch object
+     * */
+    private final String rulePath;
+
+    /**
+     * Maximum number of chunk validated at the same time
+     * */
+    private final int parallelism;
+
+    /**
+     * Number of object validated by one task
+     * */
+    private final int chunkSize;
+
+    /**
+     * Keep only the result of invalid object
+     * */
+    private final boolean failuresOnly;
+
+    /**
+     * Validation mode of each object
+     * */
+    private final ValidationMode mode;
+
+    /**
+     * Construct a sequential validator that keep every result
+     * @param rulePath rule of the batch object
+     * */
+    public BatchValidator(String rulePath) {
+        this(rulePath, 1, DEFAULT_CHUNK_SIZE, false, ValidationSettings.getValidationMode());
+    }
+
+    /**
+     * Construct validator
+     * @param rulePath rule of the batch object
+     * @param parallelism maximum number of chunk validated at the same time, 1 to validate on the calling thread
+     * @param chunkSize number of object validated by one task
+     * @param failuresOnly keep only the result of invalid object
+     * @param mode validation mode of each object
+     * */
+    public BatchValidator(String rulePath, int parallelism, int chunkSize, boolean failuresOnly, ValidationMode mode) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        this.rulePath = Objects.requireNonNull(rulePath);
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.failuresOnly = failuresOnly;
+        this.mode = Objects.requireNonNull(mode);
+    }
+
+    /**
+     * Validate a stream of object, the stream is consumed and closed
+     * @param objects batch object
+     * @return batch result
+     * @throws ValidationException if the rule cannot be loaded or an expression is invalid
+     * */
+    public BatchValidationResult validate(Stream<?> objects) {
+        try (objects) {
+            return validate(objects.iterator());
+        }
+    }
+
+    /**
+     * Validate an iterable of object
+     * @param objects batch object
+     * @return batch result
+     * @throws ValidationException if the rule cannot be loaded or an expression is invalid
+     * */
+    public BatchValidationResult validate(Iterable<?> objects) {
+        return validate(objects.iterator());
+    }
+
+    /**
+     * Read input chunk by chunk, keep at most {@code parallelism} chunks in flight and
+     * collect the oldest chunk first so that result stay in input order
+     * <p>
+     * When a chunk or the input fail, the chunks in flight are cancelled: those not started
+     * are never run, those running stop before their next object and are awaited before
+     * the failure is rethrown, so no task of the batch outlive the call
+     * */
+    private BatchValidationResult validate(Iterator<?> objects) {
+        long start = System.nanoTime();
+        CompiledRule rule = RuleRegistry.getValidator(rulePath);
+        Collector collector = new Collector();
+        if (parallelism == 1) {
+            while (objects.hasNext()) {
+                collector.collect(validateChunk(rule, nextChunk(objects), null));
+            }
+        } else {
+            ForkJoinPool pool = ValidationSettings.getParallelPool();
+            Deque<ForkJoinTask<ValidationResult[]>> inFlight = new ArrayDeque<>(parallelism);
+            Tasks tasks = new Tasks();
+            try {
+                while (objects.hasNext()) {
+                    if (inFlight.size() == parallelism) {
+                        collector.collect(inFlight.poll().join());
+                    }
+                    Object[] chunk = nextChunk(objects);
+                    inFlight.add(pool.submit(() -> validateChunk(rule, chunk, tasks)));
+                }
+                while (!inFlight.isEmpty()) {
+                    collector.collect(inFlight.poll().join());
+                }
+            } catch (RuntimeException | Error e) {
+                tasks.abort();
+                inFlight.forEach(task -> task.cancel(false));
+                tasks.await();
+                throw e;
+            }
+        }
+        return collector.toResult(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * @return next chunk of input, at most {@code chunkSize} long
+     * */
+    private Object[] nextChunk(Iterator<?> objects) {
+        List<Object> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && objects.hasNext()) {
+            chunk.add(objects.next());
+        }
+        return chunk.toArray();
+    }
+
+    /**
+     * Validate every object of the chunk
+     * @param tasks tasks of the batch, {@code null} on the calling thread
+     * @return results of the chunk, {@code null} when the batch was aborted
+     * */
+    private ValidationResult[] validateChunk(CompiledRule rule, Object[] chunk, Tasks tasks) {
+        if (tasks != null && !tasks.start()) return null;
+        try {
+            ValidationResult[] results = new ValidationResult[chunk.length];
+            for (int i = 0; i < chunk.length; i++) {
+                if (tasks != null && tasks.isAborted()) return null;
+                results[i] = rule.validate(chunk[i], mode);
+            }
+            return results;
+        } finally {
+            if (tasks != null) tasks.finish();
+        }
+    }
+
+    /**
+     * Running chunk tasks of a parallel batch
+     * <p>
+     * Cancelling a {@code ForkJoinTask} does not stop it once started, the running tasks
+     * are counted so that an aborted batch can wait for them
+     * */
+    private static final class Tasks {
+
+        private volatile boolean aborted;
+
+        private int running;
+
+        /**
+         * @return whether the task may run, false once the batch is aborted
+         * */
+        private synchronized boolean start() {
+            if (aborted) return false;
+            running++;
+            return true;
+        }
+
+        private synchronized void finish() {
+            if (--running == 0) notifyAll();
+        }
+
+        private boolean isAborted() {
+            return aborted;
+        }
+
+        private synchronized void abort() {
+            aborted = true;
+        }
+
+        /**
+         * Wait for the running tasks, they stop at their next object once aborted
+         * */
+        private synchronized void await() {
+            while (running > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Accumulate chunk results in input order
+     * <p>
+     * When every result is kept the failures are a view over the results, only the
+     * failures only mode index them separately
+     * */
+    private final class Collector {
+
+        private final List<ValidationResult> results = failuresOnly ? List.of() : new ArrayList<>();
+
+        private final Map<Long, ValidationResult> failures = failuresOnly ? new LinkedHashMap<>() : null;
+
+        private long total;
+
+        private long invalid;
+
+        private void collect(ValidationResult[] chunk) {
+            for (ValidationResult result : chunk) {
+                if (!failuresOnly) results.add(result);
+                if (!result.isValid()) {
+                    if (failuresOnly) failures.put(total, result);
+                    invalid++;
+                }
+                total++;
+            }
+        }
+
+        private BatchValidationResult toResult(Duration elapsed) {
+            List<ValidationResult> kept = Collections.unmodifiableList(results);
+            Map<Long, ValidationResult> failed = failuresOnly ? Collections.unmodifiableMap(failures) : new Failures(kept, invalid);
+            return new BatchValidationResult(total, total - invalid, invalid, elapsed, kept, failed);
+        }
+    }
+
+    /**
+     * Read-only view of the invalid results keyed by their index, in input order
+     * */
+    private static final class Failures extends AbstractMap<Long, ValidationResult> {
+
+        private final List<ValidationResult> results;
+
+        private final long size;
+
+        private Failures(List<ValidationResult> results, long size) {
+            this.results = results;
+            this.size = size;
+        }
+
+        @Override
+        public ValidationResult get(Object key) {
+            if (!(key instanceof Long index) || index < 0 || index >= results.size()) return null;
+            ValidationResult result = results.get(index.intValue());
+            return result.isValid() ? null : result;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(size, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public Set<Entry<Long, ValidationResult>> entrySet() {
+            return new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<Long, ValidationResult>> iterator() {
+                    return new Iterator<>() {
+
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < results.size() && results.get(from).isValid()) from++;
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < results.size();
+                        }
+
+                        @Override
+                        public Entry<Long, ValidationResult> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            Entry<Long, ValidationResult> entry = Map.entry((long) next, results.get(next));
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Failures.this.size();
+                }
+            };
+        }
+    }
+}
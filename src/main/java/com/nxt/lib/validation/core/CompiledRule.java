@@ -0,0 +1,487 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.utils.SpElExpression;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executable form of a {@code RuleConfiguration} tree
+ * <p>
+ * Produced once by {@link ValidationCompiler} then reused for every validation: the
+ * tree shape is resolved up front (basic, composite, array), the condition and rule
+ * expressions are parsed and bound to the node so that validating an object is a plain
+ * walk over final fields, without re-reading the configuration or allocating an executor
+ * per node. With SpEl compiler enabled (see {@link ValidationSettings#setCompilerMode}) the
+ * expressions themselves run as generated bytecode, a property comparison like
+ * {@code age >= 18} become a direct getter call.
+ * <p>
+ * Failure is reported as a structured {@link Violation}, rendered to message only when it
+ * is read, and success as null: validating a valid object allocate nothing.
+ * <p>
+ * A compiled rule is immutable and thread-safe.
+ * @see ValidationCompiler
+ * @see RuleRegistry#getValidator(String)
+ * @author Truong Ngo
+ * */
+public abstract class CompiledRule {
+
+    /**
+     * Source configuration
+     * */
+    protected final RuleConfiguration configuration;
+
+    /**
+     * Parsed condition, null if the rule has no condition
+     * */
+    protected final SpElExpression condition;
+
+    /**
+     * Direct evaluation of condition, null if the condition is not a simple expression
+     * */
+    private final SimpleExpression simpleCondition;
+
+    /**
+     * Construct base on configuration and its parsed condition
+     * */
+    protected CompiledRule(RuleConfiguration configuration, SpElExpression condition) {
+        this.configuration = configuration;
+        this.condition = condition;
+        this.simpleCondition = recognize(condition);
+    }
+
+    /**
+     * @return copy of the source configuration of the rule, changing it does not affect the rule
+     * */
+    public RuleConfiguration getConfiguration() {
+        return configuration.copy();
+    }
+
+    /**
+     * @return source configuration of the rule, shared: must not be modified
+     * */
+    RuleConfiguration getSourceConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Validate an object against the rule with the default mode of {@link ValidationSettings}
+     * @param context object need to be validated
+     * @return {@code ValidationResult} - result of validation process
+     * @throws ValidationException if an expression of the rule is invalid
+     * */
+    public ValidationResult validate(Object context) {
+        return toResult(run(context, ValidationSettings.getValidationMode().isFailFast()));
+    }
+
+    /**
+     * Validate an object against the rule
+     * @param context object need to be validated
+     * @param mode collect every message or stop at first failure
+     * @return {@code ValidationResult} - result of validation process
+     * @throws ValidationException if an expression of the rule is invalid
+     * */
+    public ValidationResult validate(Object context, ValidationMode mode) {
+        return toResult(run(context, mode.isFailFast()));
+    }
+
+    /**
+     * Check an object against the rule, stop at the first failure
+     * @param context object need to be validated
+     * @return true if object is valid
+     * @throws ValidationException if an expression of the rule is invalid
+     * */
+    public boolean test(Object context) {
+        return run(context, true) == null;
+    }
+
+    /**
+     * Evaluate the rule in a {@link ValidationPass} if property or element memo is enabled
+     * */
+    private Violation run(Object context, boolean failFast) {
+        ValidationPass pass = openPass();
+        try {
+            return evaluate(context, failFast);
+        } finally {
+            if (pass != null) pass.close();
+        }
+    }
+
+    /**
+     * Open a {@link ValidationPass} on current thread if property or element memo is enabled
+     * @return the pass, null if memo is disabled or a pass is already open
+     * */
+    static ValidationPass openPass() {
+        return ValidationSettings.isPropertyMemo() || ValidationSettings.getElementMemoSize() > 0 ?
+                ValidationPass.open() : null;
+    }
+
+    /**
+     * Evaluate the rule
+     * @param context object need to be validated
+     * @param failFast stop at the first failure
+     * @return violation of the rule, null if object is valid
+     * */
+    abstract Violation evaluate(Object context, boolean failFast);
+
+    /**
+     * @return result of violation
+     * */
+    static ValidationResult toResult(Violation violation) {
+        return violation == null ? ValidationResult.VALID_RESULT : new ValidationResult(violation);
+    }
+
+    /**
+     * @return true if the rule has no condition or the condition match
+     * */
+    protected boolean isApplied(Object context) {
+        if (simpleCondition != null) {
+            int result = simpleCondition.test(context);
+            if (result != SimpleExpression.UNKNOWN) return result == SimpleExpression.TRUE;
+        }
+        return ValidationUtils.getCondition(configuration, condition, context);
+    }
+
+    /**
+     * @return direct evaluation of expression, null if it is disabled or the expression is not simple
+     * */
+    static SimpleExpression recognize(SpElExpression expression) {
+        return ValidationSettings.isDirectAccess() ? SimpleExpression.recognize(expression) : null;
+    }
+
+    /**
+     * Basic form: single expression on target
+     * */
+    static final class Basic extends CompiledRule {
+
+        /**
+         * Parsed rule expression
+         * */
+        private final SpElExpression ruleExpression;
+
+        /**
+         * Direct evaluation of rule expression, null if the expression is not simple
+         * */
+        private final SimpleExpression simpleRule;
+
+        /**
+         * Violation of the rule, shared as it only depend on the configuration
+         * */
+        private final Violation violation;
+
+        Basic(RuleConfiguration configuration, SpElExpression condition, SpElExpression ruleExpression) {
+            super(configuration, condition);
+            this.ruleExpression = ruleExpression;
+            this.simpleRule = recognize(ruleExpression);
+            this.violation = new Violation.Basic(configuration.getTarget(), configuration.getMessage());
+        }
+
+        @Override
+        Violation evaluate(Object context, boolean failFast) {
+            if (!isApplied(context) || isValid(context)) {
+                return null;
+            }
+            return violation;
+        }
+
+        /**
+         * @return parsed rule expression
+         * */
+        SpElExpression getRuleExpression() {
+            return ruleExpression;
+        }
+
+        private boolean isValid(Object context) {
+            if (simpleRule != null) {
+                int result = simpleRule.test(context);
+                if (result != SimpleExpression.UNKNOWN) return result == SimpleExpression.TRUE;
+            }
+            return ValidationUtils.getExpressionResult(configuration, ruleExpression, context);
+        }
+    }
+
+    /**
+     * Composite form: group of rule combined with and / or
+     * <p>
+     * Or group stop at its first valid sub rule as the other can not change the result.
+     * And group stop at its first invalid sub rule in fail fast mode
+     * */
+    static final class Composite extends CompiledRule {
+
+        /**
+         * Compiled sub rules, in configuration order
+         * */
+        private final CompiledRule[] subRules;
+
+        /**
+         * Indicate the group type is and
+         * */
+        private final boolean isAnd;
+
+        Composite(RuleConfiguration configuration, SpElExpression condition, CompiledRule[] subRules) {
+            super(configuration, condition);
+            this.subRules = subRules;
+            this.isAnd = configuration.getGroupType().isAnd();
+        }
+
+        /**
+         * @return compiled sub rules, in configuration order
+         * */
+        CompiledRule[] getSubRules() {
+            return subRules;
+        }
+
+        /**
+         * @return true if the group type is and
+         * */
+        boolean isAnd() {
+            return isAnd;
+        }
+
+        @Override
+        Violation evaluate(Object context, boolean failFast) {
+            if (!isApplied(context)) {
+                return null;
+            }
+            return isAnd ? andValidation(context, failFast) : orValidation(context, failFast);
+        }
+
+        /**
+         * And case: valid if all sub rule are valid, otherwise contain violation of invalid rules
+         * */
+        private Violation andValidation(Object context, boolean failFast) {
+            Violation.And violation = null;
+            for (CompiledRule subRule : subRules) {
+                Violation subViolation = subRule.evaluate(context, failFast);
+                if (subViolation != null) {
+                    if (violation == null) violation = new Violation.And(configuration.getGroupType());
+                    violation.add(subViolation);
+                    if (failFast) break;
+                }
+            }
+            return violation;
+        }
+
+        /**
+         * Or case: valid if one sub rule is valid, otherwise contain violation of all rules under target
+         * */
+        private Violation orValidation(Object context, boolean failFast) {
+            Violation[] violations = null;
+            for (int i = 0; i < subRules.length; i++) {
+                Violation subViolation = subRules[i].evaluate(context, failFast);
+                if (subViolation == null) return null;
+                if (violations == null) violations = new Violation[subRules.length];
+                violations[i] = subViolation;
+            }
+            return new Violation.Or(configuration.getTarget(), configuration.getGroupType(), violations);
+        }
+    }
+
+    /**
+     * Array form: every element of target must match the element rule
+     * <p>
+     * Large array can be validated in parallel, see {@link ValidationSettings#setParallelThreshold(int)}.
+     * In fail fast mode the validation stop at the first invalid element
+     * */
+    static final class Array extends CompiledRule {
+
+        /**
+         * Parsed {@code #this.target} expression
+         * */
+        private final SpElExpression elementAccessor;
+
+        /**
+         * Compiled rule of element, linked at compile time and shared with {@code RuleRegistry}
+         * */
+        private final CompiledRule elementRule;
+
+        Array(RuleConfiguration configuration, SpElExpression condition, SpElExpression elementAccessor, CompiledRule elementRule) {
+            super(configuration, condition);
+            this.elementAccessor = elementAccessor;
+            this.elementRule = elementRule;
+        }
+
+        @Override
+        Violation evaluate(Object context, boolean failFast) {
+            if (!isApplied(context)) {
+                return null;
+            }
+            CompiledRule element = elementRule;
+            List<?> objects = ValidationUtils.getArrayElement(configuration, elementAccessor, context);
+            int threshold = ValidationSettings.getParallelThreshold();
+            return threshold > 0 && objects.size() >= threshold ?
+                    parallelValidate(element, objects.toArray(), failFast) :
+                    sequentialValidate(element, objects, failFast);
+        }
+
+        /**
+         * @return compiled rule of array element
+         * */
+        CompiledRule getElementRule() {
+            return elementRule;
+        }
+
+        /**
+         * @return parsed {@code #this.target} expression
+         * */
+        SpElExpression getElementAccessor() {
+            return elementAccessor;
+        }
+
+        /**
+         * Validate element one by one on the calling thread
+         * */
+        private Violation sequentialValidate(CompiledRule element, List<?> objects, boolean failFast) {
+            Violation.Elements violation = null;
+            for (int i = 0; i < objects.size(); i++) {
+                Violation elementViolation = evaluateElement(element, objects.get(i), failFast);
+                if (elementViolation != null) {
+                    if (violation == null) violation = newViolation(element);
+                    violation.add(i, elementViolation);
+                    if (failFast) break;
+                }
+            }
+            return violation;
+        }
+
+        /**
+         * Validate element through the element memo of current {@link ValidationPass} if enabled
+         * */
+        private static Violation evaluateElement(CompiledRule element, Object object, boolean failFast) {
+            int memoSize = ValidationSettings.getElementMemoSize();
+            ValidationPass pass = memoSize > 0 && object != null ? ValidationPass.current() : null;
+            return pass == null ? element.evaluate(object, failFast) : pass.evaluateElement(element, object, failFast, memoSize);
+        }
+
+        /**
+         * Validate element on the parallel pool then merge the result in index order
+         * <p>
+         * In fail fast mode element after the lowest invalid index found so far are skipped,
+         * the reported failure is always the lowest invalid index, same as sequential
+         * */
+        private Violation parallelValidate(CompiledRule element, Object[] objects, boolean failFast) {
+            Violation[] violations = new Violation[objects.length];
+            ForkJoinPool pool = ValidationSettings.getParallelPool();
+            int batchSize = Math.max(1, objects.length / (pool.getParallelism() * 4));
+            AtomicInteger firstFailure = failFast ? new AtomicInteger(Integer.MAX_VALUE) : null;
+            pool.invoke(new ElementTask(element, objects, violations, firstFailure, 0, objects.length, batchSize));
+            Violation.Elements violation = null;
+            for (int i = 0; i < violations.length; i++) {
+                if (violations[i] != null) {
+                    if (violation == null) violation = newViolation(element);
+                    violation.add(i, violations[i]);
+                    if (failFast) break;
+                }
+            }
+            return violation;
+        }
+
+        /**
+         * @return empty violation of the array, element message are keyed with their index path
+         * */
+        Violation.Elements newViolation(CompiledRule element) {
+            return new Violation.Elements(configuration.getTarget(), element.configuration.getGroupType());
+        }
+    }
+
+    /**
+     * Rule wrapped with its meters, see {@link ValidationMetrics}
+     * */
+    static final class Metered extends CompiledRule {
+
+        private final CompiledRule rule;
+
+        private final ValidationMetrics.RuleMeter meter;
+
+        Metered(CompiledRule rule, ValidationMetrics.RuleMeter meter) {
+            super(rule.configuration, rule.condition);
+            this.rule = rule;
+            this.meter = meter;
+        }
+
+        /**
+         * @return the rule without its meters
+         * */
+        CompiledRule getRule() {
+            return rule;
+        }
+
+        /**
+         * @return meters of the rule
+         * */
+        ValidationMetrics.RuleMeter getMeter() {
+            return meter;
+        }
+
+        @Override
+        Violation evaluate(Object context, boolean failFast) {
+            long start = meter.start();
+            Violation violation = rule.evaluate(context, failFast);
+            meter.record(start, violation != null);
+            return violation;
+        }
+    }
+
+    /**
+     * Validate a range of array element, split in half until the range fit the batch size
+     * */
+    private static final class ElementTask extends RecursiveAction {
+
+        private final CompiledRule element;
+
+        private final Object[] objects;
+
+        private final Violation[] violations;
+
+        /**
+         * Lowest invalid index found so far, null if not in fail fast mode
+         * */
+        private final AtomicInteger firstFailure;
+
+        private final int from, to, batchSize;
+
+        private ElementTask(CompiledRule element, Object[] objects, Violation[] violations, AtomicInteger firstFailure, int from, int to, int batchSize) {
+            this.element = element;
+            this.objects = objects;
+            this.violations = violations;
+            this.firstFailure = firstFailure;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchSize) {
+                ValidationPass pass = openPass();
+                try {
+                    validateRange();
+                } finally {
+                    if (pass != null) pass.close();
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new ElementTask(element, objects, violations, firstFailure, from, middle, batchSize),
+                        new ElementTask(element, objects, violations, firstFailure, middle, to, batchSize));
+            }
+        }
+
+        /**
+         * Validate the range on current thread, through the element memo like sequential validation
+         * */
+        private void validateRange() {
+            boolean failFast = firstFailure != null;
+            for (int i = from; i < to; i++) {
+                if (failFast && i > firstFailure.get()) return;
+                violations[i] = Array.evaluateElement(element, objects[i], failFast);
+                if (failFast && violations[i] != null) {
+                    firstFailure.accumulateAndGet(i, Math::min);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.nxt.lib.validation.core;
+
+import java.util.Set;
+
+/**
+ * Result of a merge patch validation
+ *
+ * @param value        patched copy of the previous object sharing its unchanged property values, the previous
+ *                     object itself if the patch change nothing. The previous object is left unchanged
+ * @param changedPaths property paths changed by the patch
+ * @param result       validation result of the patched object
+ * @see DeltaValidator
+ * @author Truong Ngo
+ */
+public record DeltaValidationResult<T>(T value, Set<String> changedPaths, ValidationResult result) {
+
+    /**
+     * @return true if the patched object is valid
+     * */
+    public boolean isValid() {
+        return result.isValid();
+    }
+}
@@ -0,0 +1,627 @@
+package com.nxt.lib.validation.core;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.introspect.AnnotatedConstructor;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nxt.lib.utils.ClassUtils;
+import com.nxt.lib.utils.IOUtils;
+import com.nxt.lib.utils.LruCache;
+import com.nxt.lib.utils.SpElExpression;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.*;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validate an update of an object that was valid, e.g. the PATCH of a large aggregate
+ * <p>
+ * Only the rules that read a changed property are evaluated again, the other keep the
+ * result of the previous validation: valid. Rule dependencies are found by static analysis
+ * of the condition and rule expressions (property chains read from the root object, like
+ * {@code departments.size()} or {@code address.city}), an expression using anything else
+ * (method on root, variable, selection, projection...) is considered to depend on every
+ * property and is always evaluated.
+ * <p>
+ * Changed paths use the property syntax of the rules with index for array element, e.g.
+ * {@code taxCode}, {@code address.city}, {@code departments[2].name}:
+ * <ul>
+ *     <li>a rule reading a changed path, its parent or a property under it is evaluated</li>
+ *     <li>{@code x == null} and {@code x != null} only depend on x being replaced, {@code x.size()}
+ *     and {@code x.isEmpty()} also on its elements count: changing a property under x does not
+ *     evaluate them</li>
+ *     <li>a group whose condition is not changed only evaluate its changed sub rules,
+ *     or group is evaluated as a whole as its result depend on every sub rule</li>
+ *     <li>an array only validate its changed elements, with the paths under the element</li>
+ * </ul>
+ * Path of a removed or inserted element must be the array itself, e.g. {@code departments}.
+ * <p>
+ * The result is the same as a full validation as long as the previous object was valid and
+ * every change is listed. Dependencies are analyzed once per rule node and kept in a bounded
+ * cache shared by every validator. A validator is thread-safe.
+ * @see DeltaValidationResult
+ * @author Truong Ngo
+ * */
+public class DeltaValidator {
+
+    /**
+     * Maximum number of rule node whose dependencies are cached
+     * */
+    public static final int DEPENDENCY_CACHE_SIZE = 4096;
+
+    /**
+     * Property paths read by each rule node keyed by node identity, empty if the node
+     * depend on every property
+     * */
+    private static final LruCache<CompiledRule, Optional<Set<Dependency>>> DEPENDENCIES = new LruCache<>(DEPENDENCY_CACHE_SIZE);
+
+    private final ObjectMapper mapper;
+
+    /**
+     * Patchable properties of each class, empty if the class is not patched property by property
+     * */
+    private final Map<Class<?>, Optional<Bean>> beans = new ConcurrentHashMap<>();
+
+    /**
+     * Construct with the shared mapper of {@link IOUtils#getObjectMapper()}
+     * */
+    public DeltaValidator() {
+        this(IOUtils.getObjectMapper());
+    }
+
+    /**
+     * Construct with a mapper, e.g. the one configured by Spring
+     * @param mapper mapper use to apply merge patch
+     * */
+    public DeltaValidator(ObjectMapper mapper) {
+        this.mapper = Objects.requireNonNull(mapper);
+    }
+
+    /**
+     * Validate the changes of an object with the default mode of {@link ValidationSettings}
+     * @param rulePath rule of the object
+     * @param updated object previously valid, with the changes applied
+     * @param changedPaths property paths changed since the previous validation
+     * @return {@code ValidationResult} - result of validation process
+     * @throws ValidationException if the rule cannot be loaded or an expression is invalid
+     * */
+    public ValidationResult validate(String rulePath, Object updated, Collection<String> changedPaths) {
+        return validate(rulePath, updated, changedPaths, ValidationSettings.getValidationMode());
+    }
+
+    /**
+     * Validate the changes of an object
+     * @param rulePath rule of the object
+     * @param updated object previously valid, with the changes applied
+     * @param changedPaths property paths changed since the previous validation
+     * @param mode collect every message or stop at first failure
+     * @return {@code ValidationResult} - result of validation process
+     * @throws ValidationException if the rule cannot be loaded or an expression is invalid
+     * */
+    public ValidationResult validate(String rulePath, Object updated, Collection<String> changedPaths, ValidationMode mode) {
+        CompiledRule rule = RuleRegistry.getValidator(rulePath);
+        if (changedPaths.isEmpty()) return ValidationResult.VALID_RESULT;
+        List<String> changes = changedPaths.stream().map(DeltaValidator::normalize).toList();
+        return CompiledRule.toResult(evaluate(rule, updated, changes, mode.isFailFast()));
+    }
+
+    /**
+     * Apply a JSON merge patch (RFC 7396) to a copy of a valid object and validate the changes
+     * @param rulePath rule of the object
+     * @param previous object previously valid, it is not modified
+     * @param patch merge patch document
+     * @return patched object, changed paths and validation result
+     * @throws IOException if the patch is not a JSON object or the patched object cannot be bound
+     * @throws ValidationException if the rule cannot be loaded or an expression is invalid
+     * */
+    public <T> DeltaValidationResult<T> validatePatch(String rulePath, T previous, String patch) throws IOException {
+        return validatePatch(rulePath, previous, mapper.readTree(patch));
+    }
+
+    /**
+     * Apply a JSON merge patch (RFC 7396) to a copy of a valid object and validate the changes
+     * <p>
+     * A member set to null set the property to null, an array is replaced as a whole. Member
+     * whose value does not change is not reported as changed.
+     * <p>
+     * Only the patched members are read and bound: an object with a no-arg constructor whose
+     * patched members are writable properties is shallow copied field by field (every instance
+     * field, including the ones ignored by JSON or without setter) and only its patched
+     * properties are replaced, so the patched object share its unchanged values with the
+     * previous one. Other objects (map, record, immutable object...) are patched through their
+     * JSON tree, only at the level of the patched member, which require every field of the
+     * object to be written and bound by JSON: an object with a field ignored by JSON or read
+     * only cannot be patched that way and is refused rather than silently losing the field.
+     * @param rulePath rule of the object
+     * @param previous object previously valid, it is not modified
+     * @param patch merge patch document
+     * @return patched object, changed paths and validation result
+     * @throws IOException if the patch is not a JSON object, the patched object cannot be bound
+     * or cannot be copied without losing a field
+     * @throws ValidationException if the rule cannot be loaded or an expression is invalid
+     * */
+    @SuppressWarnings("unchecked")
+    public <T> DeltaValidationResult<T> validatePatch(String rulePath, T previous, JsonNode patch) throws IOException {
+        if (Objects.isNull(patch) || !patch.isObject()) throw new IOException("Merge patch must be a JSON object");
+        Set<String> changedPaths = new LinkedHashSet<>();
+        T value = (T) apply(previous, mapper.constructType(previous.getClass()), patch, "", changedPaths);
+        return new DeltaValidationResult<>(value, changedPaths, validate(rulePath, value, changedPaths));
+    }
+
+    /**
+     * Apply patch value to a property value, collect the path of the changed members
+     * @param current current value, may be null
+     * @param type declared type of the value
+     * @return patched value, current value itself if nothing changed
+     * */
+    private Object apply(Object current, JavaType type, JsonNode value, String path, Set<String> changedPaths) throws IOException {
+        if (value.isObject() && Objects.nonNull(current)) {
+            Bean bean = getBean(current.getClass());
+            if (Objects.nonNull(bean) && bean.copyable() && bean.hasProperties(value)) {
+                return applyBean(current, bean, value, path, changedPaths);
+            }
+            if (Objects.nonNull(bean) && Objects.nonNull(bean.unbound())) {
+                throw new IOException("Cannot patch " + (path.isEmpty() ? "object" : path) + " of type "
+                        + current.getClass().getName() + ", field " + bean.unbound() + " is not bound by JSON");
+            }
+            JsonNode tree = mapper.valueToTree(current);
+            if (tree.isObject()) {
+                Set<String> changes = new LinkedHashSet<>();
+                merge((ObjectNode) tree, value, path, changes);
+                if (changes.isEmpty()) return current;
+                changedPaths.addAll(changes);
+                return mapper.treeToValue(tree, type);
+            }
+        }
+        if (value.isObject()) {
+            ObjectNode replacement = mapper.createObjectNode();
+            merge(replacement, value, path, new HashSet<>());
+            value = replacement;
+        }
+        JsonNode currentNode = Objects.isNull(current) ? mapper.nullNode() : mapper.valueToTree(current);
+        if (value.equals(currentNode)) return current;
+        changedPaths.add(path);
+        return mapper.treeToValue(value, type);
+    }
+
+    /**
+     * Apply patch to a shallow copy of bean, copied on the first changed property
+     * @return patched copy, the object itself if nothing changed
+     * */
+    private Object applyBean(Object object, Bean bean, JsonNode patch, String prefix, Set<String> changedPaths) throws IOException {
+        Object copy = null;
+        for (Iterator<Map.Entry<String, JsonNode>> members = patch.fields(); members.hasNext(); ) {
+            Map.Entry<String, JsonNode> member = members.next();
+            String path = prefix.isEmpty() ? member.getKey() : prefix + "." + member.getKey();
+            Property property = bean.properties().get(member.getKey());
+            try {
+                Object current = property.accessor().getValue(object);
+                Object value = apply(current, property.type(), member.getValue(), path, changedPaths);
+                if (value == current) continue;
+                if (Objects.isNull(copy)) copy = bean.copy(object);
+                property.mutator().setValue(copy, value);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Cannot patch property " + path, e);
+            }
+        }
+        return Objects.isNull(copy) ? object : copy;
+    }
+
+    /**
+     * Merge patch into target, collect the path of the changed members
+     * */
+    private void merge(ObjectNode target, JsonNode patch, String prefix, Set<String> changedPaths) {
+        patch.fields().forEachRemaining(member -> {
+            String path = prefix.isEmpty() ? member.getKey() : prefix + "." + member.getKey();
+            JsonNode current = target.get(member.getKey());
+            JsonNode value = member.getValue();
+            if (value.isObject() && Objects.nonNull(current) && current.isObject()) {
+                merge((ObjectNode) current, value, path, changedPaths);
+                return;
+            }
+            if (value.isObject()) {
+                ObjectNode replacement = mapper.createObjectNode();
+                merge(replacement, value, path, new HashSet<>());
+                value = replacement;
+            }
+            if (!value.equals(Objects.isNull(current) ? mapper.nullNode() : current)) {
+                target.set(member.getKey(), value);
+                changedPaths.add(path);
+            }
+        });
+    }
+
+    /**
+     * @return patchable properties of class, null if the class is a JSON container or value type
+     * */
+    private Bean getBean(Class<?> type) {
+        return beans.computeIfAbsent(type, this::introspect).orElse(null);
+    }
+
+    /**
+     * Find the no-arg constructor, the readable and writable properties and the fields not
+     * bound by JSON of a class
+     * */
+    private Optional<Bean> introspect(Class<?> type) {
+        JavaType javaType = mapper.constructType(type);
+        if (!javaType.isConcrete() || javaType.isContainerType() || javaType.isEnumType() ||
+                type.getName().startsWith("java.")) {
+            return Optional.empty();
+        }
+        BeanDescription description = mapper.getDeserializationConfig().introspect(javaType);
+        String unbound = findUnboundField(type, description);
+        AnnotatedConstructor constructor = description.findDefaultConstructor();
+        if (Objects.isNull(constructor) || type.isRecord() || type.isAnnotationPresent(JsonDeserialize.class) ||
+                !ClassUtils.canCopyFields(type)) {
+            return Optional.of(new Bean(null, Map.of(), unbound));
+        }
+        Map<String, Property> properties = new HashMap<>();
+        for (BeanPropertyDefinition definition : description.findProperties()) {
+            AnnotatedMember accessor = definition.getAccessor();
+            AnnotatedMember mutator = definition.hasSetter() ? definition.getSetter() : definition.getField();
+            if (Objects.isNull(accessor) || Objects.isNull(mutator)) continue;
+            if (mutator instanceof AnnotatedField field && Modifier.isFinal(field.getModifiers())) continue;
+            try {
+                accessor.fixAccess(true);
+                mutator.fixAccess(true);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            properties.put(definition.getName(), new Property(accessor, mutator, definition.getPrimaryType()));
+        }
+        try {
+            constructor.fixAccess(true);
+        } catch (RuntimeException e) {
+            return Optional.of(new Bean(null, Map.of(), unbound));
+        }
+        return Optional.of(new Bean(constructor, Map.copyOf(properties), unbound));
+    }
+
+    /**
+     * @return name of the first instance field that is not both written and bound by JSON,
+     * null if the class round trip through its JSON tree
+     * */
+    private static String findUnboundField(Class<?> type, BeanDescription description) {
+        Set<String> bound = new HashSet<>();
+        for (BeanPropertyDefinition definition : description.findProperties()) {
+            if (definition.couldSerialize() && definition.couldDeserialize()) bound.add(definition.getInternalName());
+        }
+        for (Field field : ClassUtils.getAllFields(type)) {
+            if (!Modifier.isStatic(field.getModifiers()) && !bound.contains(field.getName())) return field.getName();
+        }
+        return null;
+    }
+
+    /**
+     * Class patched property by property, or through its JSON tree
+     * @param constructor no-arg constructor, null if the class cannot be copied field by field
+     * @param properties readable and writable properties keyed by JSON name
+     * @param unbound field not bound by JSON, null if the class round trip through its JSON tree
+     * */
+    private record Bean(AnnotatedConstructor constructor, Map<String, Property> properties, String unbound) {
+
+        /**
+         * @return true if the class can be copied and patched property by property
+         * */
+        boolean copyable() {
+            return Objects.nonNull(constructor);
+        }
+
+        /**
+         * @return true if every member of patch is a property of the class
+         * */
+        boolean hasProperties(JsonNode patch) {
+            for (Iterator<String> names = patch.fieldNames(); names.hasNext(); ) {
+                if (!properties.containsKey(names.next())) return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return new instance with every field value of object
+         * */
+        Object copy(Object object) throws IOException {
+            Object copy;
+            try {
+                copy = constructor.call();
+            } catch (Exception e) {
+                throw new IOException("Cannot instantiate " + constructor.getDeclaringClass().getName(), e);
+            }
+            ClassUtils.copyFields(object, copy);
+            return copy;
+        }
+    }
+
+    /**
+     * Readable and writable property
+     * @param accessor getter or field
+     * @param mutator setter or field
+     * @param type declared type
+     * */
+    private record Property(AnnotatedMember accessor, AnnotatedMember mutator, JavaType type) {}
+
+    /**
+     * Evaluate the rule nodes depending on the changes
+     * @return violation of the rule, null if object is valid
+     * */
+    private static Violation evaluate(CompiledRule rule, Object context, List<String> changes, boolean failFast) {
+        CompiledRule node = rule instanceof CompiledRule.Metered metered ? metered.getRule() : rule;
+        if (isChanged(getDependencies(node), changes)) {
+            return rule.evaluate(context, failFast);
+        }
+        if (node instanceof CompiledRule.Basic) {
+            return null;
+        }
+        if (node instanceof CompiledRule.Composite composite) {
+            if (!composite.isAnd()) {
+                return isChanged(composite, changes) ? rule.evaluate(context, failFast) : null;
+            }
+            if (!composite.isApplied(context)) return null;
+            Violation.And violation = null;
+            for (CompiledRule subRule : composite.getSubRules()) {
+                Violation subViolation = evaluate(subRule, context, changes, failFast);
+                if (subViolation != null) {
+                    if (violation == null) violation = new Violation.And(composite.getSourceConfiguration().getGroupType());
+                    violation.add(subViolation);
+                    if (failFast) break;
+                }
+            }
+            return violation;
+        }
+        if (node instanceof CompiledRule.Array array) {
+            return evaluateArray(rule, array, context, changes, failFast);
+        }
+        return rule.evaluate(context, failFast);
+    }
+
+    /**
+     * Validate the changed elements of array, the whole array if the array itself changed
+     * */
+    private static Violation evaluateArray(CompiledRule rule, CompiledRule.Array array, Object context, List<String> changes, boolean failFast) {
+        String target = array.getSourceConfiguration().getTarget();
+        Map<Integer, List<String>> elementChanges = new TreeMap<>();
+        for (String change : changes) {
+            switch (relation(target, change)) {
+                case UNRELATED -> {}
+                case ANCESTOR -> { return rule.evaluate(context, failFast); }
+                case DESCENDANT -> {
+                    String rest = change.substring(target.length());
+                    int close = rest.indexOf(']');
+                    Integer index = rest.startsWith("[") && close > 1 ? parseIndex(rest.substring(1, close)) : null;
+                    if (index == null) return rule.evaluate(context, failFast);
+                    String elementPath = rest.substring(close + 1);
+                    List<String> paths = elementChanges.computeIfAbsent(index, k -> new ArrayList<>());
+                    // Empty path list mean the whole element changed
+                    if (!elementPath.startsWith(".")) paths.add("");
+                    else paths.add(elementPath.substring(1));
+                }
+            }
+        }
+        if (elementChanges.isEmpty() || !array.isApplied(context)) return null;
+        List<?> objects = ValidationUtils.getArrayElement(array.getSourceConfiguration(), array.getElementAccessor(), context);
+        if (elementChanges.keySet().stream().anyMatch(i -> i >= objects.size())) {
+            return rule.evaluate(context, failFast);
+        }
+        CompiledRule element = array.getElementRule();
+        Violation.Elements violation = null;
+        for (Map.Entry<Integer, List<String>> entry : elementChanges.entrySet()) {
+            Object object = objects.get(entry.getKey());
+            Violation elementViolation = entry.getValue().contains("") ?
+                    element.evaluate(object, failFast) :
+                    evaluate(element, object, entry.getValue(), failFast);
+            if (elementViolation != null) {
+                if (violation == null) violation = array.newViolation(element);
+                violation.add(entry.getKey(), elementViolation);
+                if (failFast) break;
+            }
+        }
+        return violation;
+    }
+
+    /**
+     * @return true if a node of the rule tree depend on the changes
+     * */
+    private static boolean isChanged(CompiledRule rule, List<String> changes) {
+        CompiledRule node = rule instanceof CompiledRule.Metered metered ? metered.getRule() : rule;
+        if (isChanged(getDependencies(node), changes)) return true;
+        if (node instanceof CompiledRule.Composite composite) {
+            for (CompiledRule subRule : composite.getSubRules()) {
+                if (isChanged(subRule, changes)) return true;
+            }
+        }
+        if (node instanceof CompiledRule.Array array) {
+            String target = array.getSourceConfiguration().getTarget();
+            return changes.stream().anyMatch(change -> relation(target, change) != Relation.UNRELATED);
+        }
+        return false;
+    }
+
+    /**
+     * @return true if one of the dependencies is changed, null dependencies is always changed
+     * */
+    private static boolean isChanged(Set<Dependency> dependencies, List<String> changes) {
+        if (dependencies == null) return true;
+        for (Dependency dependency : dependencies) {
+            for (String change : changes) {
+                Relation relation = relation(dependency.path(), change);
+                if (relation == Relation.ANCESTOR) return true;
+                if (relation == Relation.DESCENDANT && dependency.access() != Access.REFERENCE) {
+                    if (dependency.access() == Access.VALUE) return true;
+                    // Count only depend on element being added, removed or replaced
+                    String rest = change.substring(dependency.path().length());
+                    if (!rest.startsWith("[") || rest.indexOf(']') == rest.length() - 1) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Position of a change relative to a property path
+     * */
+    private enum Relation {
+        /** The change is the path or one of its parents */
+        ANCESTOR,
+        /** The change is under the path */
+        DESCENDANT,
+        UNRELATED
+    }
+
+    private static Relation relation(String path, String change) {
+        if (change.equals(path) || isUnder(path, change)) return Relation.ANCESTOR;
+        if (isUnder(change, path)) return Relation.DESCENDANT;
+        return Relation.UNRELATED;
+    }
+
+    /**
+     * @return true if path is a property or element under parent
+     * */
+    private static boolean isUnder(String path, String parent) {
+        if (parent.isEmpty()) return !path.isEmpty();
+        if (path.length() <= parent.length() || !path.startsWith(parent)) return false;
+        char next = path.charAt(parent.length());
+        return next == '.' || next == '[';
+    }
+
+    private static Integer parseIndex(String index) {
+        try {
+            return Integer.parseInt(index);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Trim path and remove the {@code #this.} / {@code #root.} prefix if any
+     * */
+    private static String normalize(String path) {
+        String trimmed = path.strip();
+        if (trimmed.startsWith("#this.")) return trimmed.substring("#this.".length());
+        if (trimmed.startsWith("#root.")) return trimmed.substring("#root.".length());
+        return trimmed;
+    }
+
+    /**
+     * How a property is read by an expression
+     * */
+    private enum Access {
+        /** Compared to null */
+        REFERENCE,
+        /** Element count read by {@code size()} or {@code isEmpty()} */
+        COUNT,
+        /** Any other use */
+        VALUE
+    }
+
+    /**
+     * Property path read from root object
+     * @param path property chain, e.g. {@code address.city}
+     * @param access how the property is read
+     * */
+    private record Dependency(String path, Access access) {}
+
+    /**
+     * @return property paths read by the condition and rule expression of the node, null if unknown
+     * */
+    private static Set<Dependency> getDependencies(CompiledRule node) {
+        return DEPENDENCIES.get(node, DeltaValidator::analyze).orElse(null);
+    }
+
+    private static Optional<Set<Dependency>> analyze(CompiledRule node) {
+        RuleConfiguration config = node.getSourceConfiguration();
+        Set<Dependency> dependencies = new HashSet<>();
+        if (Objects.nonNull(config.getCondition()) && !collect(node.condition, dependencies)) {
+            return Optional.empty();
+        }
+        if (node instanceof CompiledRule.Basic basic && !collect(basic.getRuleExpression(), dependencies)) {
+            return Optional.empty();
+        }
+        return Optional.of(Set.copyOf(dependencies));
+    }
+
+    /**
+     * Collect properties read by expression
+     * @return false if the expression may read anything, or its syntax is invalid
+     * */
+    private static boolean collect(SpElExpression expression, Set<Dependency> dependencies) {
+        return Objects.nonNull(expression) && collect(expression.getAST(), dependencies);
+    }
+
+    private static boolean collect(SpelNode node, Set<Dependency> dependencies) {
+        if (node instanceof Literal) return true;
+        if (node instanceof PropertyOrFieldReference property) {
+            dependencies.add(new Dependency(property.getName(), Access.VALUE));
+            return true;
+        }
+        if (node instanceof CompoundExpression) return collectChain(node, dependencies, Access.VALUE);
+        if ((node instanceof OpEQ || node instanceof OpNE) && node.getChild(1) instanceof NullLiteral) {
+            return collectReference(node.getChild(0), dependencies);
+        }
+        if ((node instanceof OpEQ || node instanceof OpNE) && node.getChild(0) instanceof NullLiteral) {
+            return collectReference(node.getChild(1), dependencies);
+        }
+        if (node instanceof Operator || node instanceof OperatorNot || node instanceof Ternary || node instanceof Elvis) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                if (!collect(node.getChild(i), dependencies)) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Collect operand compared to null
+     * */
+    private static boolean collectReference(SpelNode node, Set<Dependency> dependencies) {
+        if (node instanceof PropertyOrFieldReference property) {
+            dependencies.add(new Dependency(property.getName(), Access.REFERENCE));
+            return true;
+        }
+        if (node instanceof CompoundExpression) return collectChain(node, dependencies, Access.REFERENCE);
+        return collect(node, dependencies);
+    }
+
+    /**
+     * Collect property chain {@code a.b.c}, optionally followed by method calls whose
+     * arguments are evaluated against the root object
+     * @param access how the chain is read if it ends with a property
+     * */
+    private static boolean collectChain(SpelNode compound, Set<Dependency> dependencies, Access access) {
+        StringBuilder path = new StringBuilder();
+        int i = 0;
+        if (compound.getChild(0) instanceof VariableReference variable &&
+                (variable.toStringAST().equals("#this") || variable.toStringAST().equals("#root"))) {
+            i = 1;
+        }
+        for (; i < compound.getChildCount() && compound.getChild(i) instanceof PropertyOrFieldReference property; i++) {
+            if (!path.isEmpty()) path.append('.');
+            path.append(property.getName());
+        }
+        if (path.isEmpty()) return false;
+        int count = compound.getChildCount();
+        if (i == count - 1 && compound.getChild(i) instanceof MethodReference method &&
+                method.getChildCount() == 0 && (method.getName().equals("size") || method.getName().equals("isEmpty"))) {
+            dependencies.add(new Dependency(path.toString(), Access.COUNT));
+            return true;
+        }
+        dependencies.add(new Dependency(path.toString(), i == count ? access : Access.VALUE));
+        for (; i < count; i++) {
+            SpelNode child = compound.getChild(i);
+            if (!(child instanceof MethodReference)) return false;
+            for (int j = 0; j < child.getChildCount(); j++) {
+                if (!collect(child.getChild(j), dependencies)) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+package com.nxt.lib.validation.core;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Reactor adapter of validation
+ * <p>
+ * Value of a {@code Mono} and elements of a {@code Flux} are validated as they are emitted,
+ * on the executor of {@link ValidationSettings#getAsyncExecutor()} so a slow rule does not
+ * block the event loop. Valid values are emitted unchanged and in order, the first invalid
+ * value terminate the sequence with a {@code ValidationRejectedException}. Message keys of a flux
+ * element are prefixed with its index, e.g. {@code [3].name}.
+ * <p>
+ * Flux elements are validated concurrently but their results are released in input order:
+ * every valid element before the invalid one is emitted before the error, even when a later
+ * element finish its validation first. Validations still running after the error are
+ * cancelled with the sequence and their results dropped.
+ * <p>
+ * Reactor is an optional dependency, this class is only loaded when it is on the class path.
+ * @see AsyncValidator
+ * @author Truong Ngo
+ * */
+public class ReactiveValidator {
+
+    /**
+     * Number of flux element validated at the same time by default
+     * */
+    public static final int DEFAULT_CONCURRENCY = 32;
+
+    /**
+     * Prevent instantiate
+     * */
+    private ReactiveValidator() {}
+
+    /**
+     * Validate the value of a mono
+     * @param rulePath rule of the value
+     * @param mono value need to be validated
+     * @return mono of the valid value, error with {@code ValidationRejectedException} if it is invalid
+     * */
+    public static <T> Mono<T> validate(String rulePath, Mono<T> mono) {
+        return validateMono(mono, value -> AsyncValidator.validate(rulePath, value));
+    }
+
+    /**
+     * Validate the elements of a flux as they stream in
+     * @param rulePath rule of the element
+     * @param flux elements need to be validated
+     * @return flux of the valid elements, error with {@code ValidationRejectedException} at the first invalid element
+     * */
+    public static <T> Flux<T> validate(String rulePath, Flux<T> flux) {
+        return validate(rulePath, flux, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Validate the elements of a flux as they stream in
+     * @param rulePath rule of the element
+     * @param flux elements need to be validated
+     * @param concurrency number of element validated at the same time, the output keep the input order
+     * @return flux of the valid elements, error with {@code ValidationRejectedException} at the first invalid element
+     * */
+    public static <T> Flux<T> validate(String rulePath, Flux<T> flux, int concurrency) {
+        return validateFlux(flux, element -> AsyncValidator.validate(rulePath, element), concurrency);
+    }
+
+    /**
+     * Validate mono or flux against a compiled rule, use by {@code ValidationAspect}
+     * @param rule compiled rule
+     * @param publisher mono or flux
+     * @return validated publisher, the argument itself if it is not a mono nor a flux
+     * */
+    static Object validate(CompiledRule rule, Object publisher) {
+        if (publisher instanceof Mono<?> mono) {
+            return validateMono(mono, value -> AsyncValidator.validate(rule, value));
+        }
+        if (publisher instanceof Flux<?> flux) {
+            return validateFlux(flux, element -> AsyncValidator.validate(rule, element), DEFAULT_CONCURRENCY);
+        }
+        return publisher;
+    }
+
+    /**
+     * @return true if the object is a mono or a flux
+     * */
+    static boolean isPublisher(Object object) {
+        return object instanceof Mono<?> || object instanceof Flux<?>;
+    }
+
+    private static <T> Mono<T> validateMono(Mono<T> mono, Function<Object, CompletionStage<ValidationResult>> validation) {
+        return mono.flatMap(value -> Mono
+                .fromCompletionStage(validation.apply(value))
+                .handle((result, sink) -> {
+                    if (result.isValid()) sink.next(value);
+                    else sink.error(new ValidationRejectedException(result.getMessages()));
+                }));
+    }
+
+    private static <T> Flux<T> validateFlux(Flux<T> flux, Function<Object, CompletionStage<ValidationResult>> validation, int concurrency) {
+        // Failures are materialized so that they are signaled in order, after the elements before them
+        return flux.index().flatMapSequential(element -> Mono
+                .fromCompletionStage(validation.apply(element.getT2()))
+                .materialize()
+                .map(signal -> Tuples.of(element, signal)), concurrency)
+                .handle((validated, sink) -> {
+                    Tuple2<Long, T> element = validated.getT1();
+                    Signal<ValidationResult> signal = validated.getT2();
+                    if (signal.isOnError()) sink.error(signal.getThrowable());
+                    else if (signal.get().isValid()) sink.next(element.getT2());
+                    else sink.error(new ValidationRejectedException(prefix(element.getT1(), signal.get().getMessages())));
+                });
+    }
+
+    /**
+     * @return messages keyed by {@code [index].key}
+     * */
+    private static Map<String, Object> prefix(long index, Map<String, Object> messages) {
+        Map<String, Object> prefixed = new LinkedHashMap<>();
+        messages.forEach((key, message) -> prefixed.put("[" + index + "]." + key, message));
+        return prefixed;
+    }
+}
@@ -1,8 +1,10 @@
 package com.nxt.lib.validation.core;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.nxt.lib.utils.StringUtils;
 import lombok.Data;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -18,10 +20,13 @@ import java.util.Objects;
  *     <li>Composite case: Group of field validation with combine operator</li>
  *     <li>Array case: Indicate the rule configuration for member is array</li>
  * </ul>
+ * <p>
+ * Unknown property in rule file (e.g. {@code isRoot}) is ignored
  * @see Valid
  * @author Truong Ngo
  * */
 @Data
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class RuleConfiguration {
 
     /**
@@ -127,6 +132,30 @@ public class RuleConfiguration {
                (Objects.nonNull(groupType) && Objects.nonNull(subRules));
     }
 
+    /**
+     * Deep copy of the configuration
+     * <p>
+     * Configuration cached by {@link RuleRegistry} is shared by every validation, it is only
+     * handed out as a copy so that changing it does not affect the compiled rule
+     * @return copy of the configuration and its sub rules
+     * */
+    public RuleConfiguration copy() {
+        RuleConfiguration copy = new RuleConfiguration();
+        copy.target = target;
+        copy.targetName = targetName;
+        copy.message = message;
+        copy.condition = condition;
+        copy.ruleExpression = ruleExpression;
+        copy.arrayElementConfig = arrayElementConfig;
+        copy.groupType = groupType;
+        copy.isConditional = isConditional;
+        if (Objects.nonNull(subRules)) {
+            copy.subRules = new ArrayList<>(subRules.size());
+            subRules.forEach(subRule -> copy.subRules.add(Objects.isNull(subRule) ? null : subRule.copy()));
+        }
+        return copy;
+    }
+
     /**
      * Rule is either be basic, composite or array form
      * @throws ValidationException if above condition is not match
@@ -0,0 +1,188 @@
+package com.nxt.lib.validation.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Load and compile every rule used by {@code @Valid} parameters at startup
+ * <p>
+ * Run once the context is started and before the application is reported ready:
+ * <ol>
+ *     <li>Scan the beans for {@code @Validated} methods and collect their {@code @Valid} rule paths</li>
+ *     <li>Read the rules level by level in parallel, following the {@code arrayElementConfig}
+ *     references transitively, then format-check and compile them into {@code RuleRegistry}</li>
+ *     <li>Optionally validate a synthetic instance of every {@code @Valid} parameter type, so the
+ *     SpEl expressions are compiled and the JIT is warm before the first request</li>
+ * </ol>
+ * A rule that cannot be loaded is logged with the path of every broken rule and the rule
+ * referencing it, the startup only fail with {@code validation.precompile.fail-on-error=true}.
+ * <p>
+ * Synthetic instance is created with the no-arg constructor of the parameter type, its
+ * properties are left empty so the warm-up mostly exercise the failure path of the root
+ * rules. Validation metrics are suppressed on the warm-up thread so that its failures are
+ * not counted while requests served meanwhile still are, see {@link ValidationMetrics#suppress()}.
+ * @see RuleRegistry
+ * @author Truong Ngo
+ * */
+@Slf4j
+@Component
+public class RulePrecompiler implements ApplicationListener<ApplicationStartedEvent> {
+
+    /**
+     * Enable the startup compilation
+     * */
+    @Value("${validation.precompile.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Fail the startup if a rule cannot be loaded, only log it by default
+     * */
+    @Value("${validation.precompile.fail-on-error:false}")
+    private boolean failOnError;
+
+    /**
+     * Number of synthetic validation per {@code @Valid} parameter, 0 to skip the warm-up (default)
+     * */
+    @Value("${validation.precompile.warm-up-iterations:0}")
+    private int warmUpIterations;
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        if (!enabled) return;
+        long start = System.nanoTime();
+        Map<String, Class<?>> roots = scan(event.getApplicationContext());
+        Map<String, Object> errors = compile(roots.keySet());
+        if (!errors.isEmpty()) {
+            log.error("Invalid validation rules: {}", errors);
+            if (failOnError) throw new ValidationException(errors);
+        }
+        if (warmUpIterations > 0) warmUp(roots);
+        log.info("Compiled {} validation rules in {} ms", RuleRegistry.stats().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return rule path of every {@code @Valid} parameter with the parameter type
+     * */
+    private Map<String, Class<?>> scan(ApplicationContext context) {
+        Map<String, Class<?>> roots = new LinkedHashMap<>();
+        for (String beanName : context.getBeanDefinitionNames()) {
+            Class<?> type = context.getType(beanName);
+            if (Objects.isNull(type)) continue;
+            ReflectionUtils.doWithMethods(ClassUtils.getUserClass(type), method -> collect(method, roots),
+                    method -> method.isAnnotationPresent(Validated.class));
+        }
+        return roots;
+    }
+
+    /**
+     * Collect {@code @Valid} parameters of method
+     * */
+    private void collect(Method method, Map<String, Class<?>> roots) {
+        ValidatedMethod validatedMethod = ValidatedMethod.of(method);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < validatedMethod.getIndexes().length; i++) {
+            roots.putIfAbsent(validatedMethod.getPaths()[i], parameterTypes[validatedMethod.getIndexes()[i]]);
+        }
+    }
+
+    /**
+     * Read rules and the element rules they reference level by level, then compile them
+     * @return messages of broken rules keyed by path, empty if every rule compiled
+     * */
+    private Map<String, Object> compile(Collection<String> paths) {
+        Map<String, String> referencedBy = new ConcurrentHashMap<>();
+        Map<String, Object> errors = new ConcurrentHashMap<>();
+        Set<String> visited = new LinkedHashSet<>(paths);
+        List<String> level = new ArrayList<>(paths);
+        while (!level.isEmpty()) {
+            Set<String> next = ConcurrentHashMap.newKeySet();
+            List<String> current = level;
+            forEachParallel(current, path -> collectElementRules(ValidationUtils.getRuleConfiguration(path), path, next, referencedBy), errors, referencedBy);
+            level = new ArrayList<>();
+            for (String path : next) {
+                if (visited.add(path)) level.add(path);
+            }
+        }
+        List<String> readable = visited.stream().filter(path -> !errors.containsKey(path)).toList();
+        forEachParallel(readable, RuleRegistry::getValidator, errors, referencedBy);
+        return new TreeMap<>(errors);
+    }
+
+    /**
+     * Run action on every path on the validation pool, collect the failures
+     * */
+    private void forEachParallel(List<String> paths, Consumer<String> action, Map<String, Object> errors, Map<String, String> referencedBy) {
+        ValidationSettings.getParallelPool().submit(() -> paths.parallelStream().forEach(path -> {
+            try {
+                action.accept(path);
+            } catch (ValidationException e) {
+                errors.put(path, describe(path, e.getMessages(), referencedBy));
+            } catch (RuntimeException e) {
+                errors.put(path, describe(path, e.getMessage(), referencedBy));
+            }
+        })).join();
+    }
+
+    /**
+     * Collect {@code arrayElementConfig} of rule
+     * */
+    private void collectElementRules(RuleConfiguration configuration, String path, Set<String> next, Map<String, String> referencedBy) {
+        for (String elementPath : ValidationUtils.getArrayElementConfigs(configuration)) {
+            next.add(elementPath);
+            referencedBy.putIfAbsent(elementPath, path);
+        }
+    }
+
+    /**
+     * @return error message of broken rule with its referencing rule
+     * */
+    private Object describe(String path, Object message, Map<String, String> referencedBy) {
+        String reference = referencedBy.get(path);
+        return Objects.isNull(reference) ? message : Map.of("referencedBy", reference, ValidationUtils.MESSAGE_KEY, String.valueOf(message));
+    }
+
+    /**
+     * Validate a synthetic instance of every {@code @Valid} parameter type
+     * */
+    private void warmUp(Map<String, Class<?>> roots) {
+        ValidationMetrics.suppress();
+        try {
+            roots.forEach(this::warmUp);
+        } finally {
+            ValidationMetrics.resume();
+        }
+    }
+
+    /**
+     * Validate a synthetic instance of a {@code @Valid} parameter type
+     * */
+    private void warmUp(String path, Class<?> type) {
+        Object instance;
+        try {
+            instance = BeanUtils.instantiateClass(type);
+        } catch (RuntimeException e) {
+            log.debug("Skip warm-up of {}, {} cannot be instantiated", path, type.getName());
+            return;
+        }
+        try {
+            CompiledRule rule = RuleRegistry.getValidator(path);
+            for (int i = 0; i < warmUpIterations; i++) {
+                rule.validate(instance);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Warm-up of {} failed: {}", path, e.getMessage());
+        }
+    }
+}
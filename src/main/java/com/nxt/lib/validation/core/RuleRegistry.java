@@ -0,0 +1,249 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.utils.LruCache;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide registry of parsed rule configuration
+ * <p>
+ * A rule file is read, parsed, format-checked and compiled on its first use only, then
+ * the {@code CompiledRule} is served from memory keyed by its path. This keep the
+ * validation hot path free of any I/O and JSON parsing.
+ * <p>
+ * The registry is bounded, when it is full the least recently used rule is evicted
+ * and will be loaded again on next use. Rule that failed to load is never cached.
+ * <p>
+ * Array element rule ({@code arrayElementConfig}) is loaded with the rule that reference it
+ * and linked into its compiled tree, every rule referencing the same file share the same
+ * element rule. Cyclic reference between files is rejected. When a rule is reloaded or
+ * invalidated, the rules that link it are reloaded or invalidated too.
+ * <p>
+ * Cached configuration is shared between all validation, it is only handed out as a copy
+ * (see {@link RuleConfiguration#copy()}).
+ * @see RuleConfiguration
+ * @see CompiledRule
+ * @author Truong Ngo
+ * */
+public class RuleRegistry {
+
+    /**
+     * Maximum number of rule file kept in memory
+     * */
+    public static final int MAX_SIZE = 256;
+
+    /**
+     * Compiled rules keyed by path
+     * */
+    private static final LruCache<String, CompiledRule> RULES = new LruCache<>(MAX_SIZE);
+
+    /**
+     * Incremented whenever a rule is invalidated, let holder of compiled rule know that
+     * they must take it again from registry
+     * */
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+
+    /**
+     * Rules linking each element rule, keyed by element rule path
+     * */
+    private static final Map<String, Set<String>> DEPENDENTS = new ConcurrentHashMap<>();
+
+    /**
+     * Element rules linked by each rule, keyed by rule path. Replaced whenever the rule is
+     * compiled again, guarded by the class lock together with {@link #DEPENDENTS}
+     * */
+    private static final Map<String, Set<String>> ELEMENTS = new HashMap<>();
+
+    /**
+     * Paths being loaded by current thread, use to detect cyclic reference
+     * */
+    private static final ThreadLocal<Deque<String>> LOADING = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Prevent instantiate
+     * */
+    private RuleRegistry() {}
+
+    /**
+     * Get the rule configuration of path, load it if it is not in registry yet
+     * @param path the path lead to rule file
+     * @return {@code RuleConfiguration} - copy of the parsed and format-checked configuration
+     * @throws ValidationException if path is invalid or not found or the rule file structure is invalid
+     * */
+    public static RuleConfiguration getRule(String path) {
+        return getValidator(path).getConfiguration();
+    }
+
+    /**
+     * Get the compiled rule of path, load and compile it if it is not in registry yet
+     * @param path the path lead to rule file
+     * @return {@code CompiledRule} - ready to validate object
+     * @throws ValidationException if path is invalid or not found, the rule file structure is invalid
+     * or the rule reference itself through array element rules
+     * */
+    public static CompiledRule getValidator(String path) {
+        return RULES.get(path, RuleRegistry::load);
+    }
+
+    /**
+     * Remove rule of path from registry, it will be reloaded on next use
+     * @param path the path lead to rule file
+     * */
+    public static void invalidate(String path) {
+        invalidate(path, new HashSet<>());
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Load and compile the rule of path again and swap it into the registry
+     * <p>
+     * The new rule is fully compiled before it replace the old one, validation in flight
+     * keep using the rule it started with. If the new rule cannot be loaded the old one
+     * stay in place. Rules linking it as array element rule are reloaded after it, the
+     * generation is bumped as soon as the rule is swapped so that holders see the new rule
+     * even if reloading a dependent fail. A change that make the rule reference itself
+     * through already loaded element rules is rejected before the swap.
+     * @param path the path lead to rule file
+     * @return true if the rule was in registry and has been replaced, false if it is not in registry
+     * @throws ValidationException if the rule file structure is invalid or the new rule
+     * reference itself through array element rules
+     * */
+    public static boolean reload(String path) {
+        return reload(path, new HashSet<>());
+    }
+
+    /**
+     * Remove all rule from registry
+     * */
+    public static void invalidateAll() {
+        RULES.invalidateAll();
+        synchronized (RuleRegistry.class) {
+            ELEMENTS.clear();
+            DEPENDENTS.clear();
+        }
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * @return current registry generation, change after every invalidation
+     * */
+    public static int getGeneration() {
+        return GENERATION.get();
+    }
+
+    /**
+     * @return registry hit, miss and eviction statistic
+     * */
+    public static LruCache.Stats stats() {
+        return RULES.stats();
+    }
+
+    /**
+     * Read and compile the rule file, its element rules are loaded on the way
+     * */
+    private static CompiledRule load(String path) {
+        Deque<String> loading = LOADING.get();
+        if (loading.contains(path)) {
+            List<String> chain = new ArrayList<>(loading);
+            Collections.reverse(chain);
+            chain.add(path);
+            throw new ValidationException(Map.of(
+                    ValidationUtils.RULE_KEY,
+                    String.format(ValidationUtils.CYCLIC_RULE_REFERENCE_PATTERN, String.join(" -> ", chain))));
+        }
+        loading.push(path);
+        try {
+            RuleConfiguration configuration = ValidationUtils.getRuleConfiguration(path);
+            CompiledRule rule = ValidationCompiler.compile(configuration, path);
+            link(path, ValidationUtils.getArrayElementConfigs(configuration));
+            return rule;
+        } finally {
+            loading.pop();
+        }
+    }
+
+    /**
+     * Reload rule of path then its dependents, each rule at most once
+     * */
+    private static boolean reload(String path, Set<String> visited) {
+        if (!visited.add(path) || !RULES.containsKey(path)) return false;
+        RULES.put(path, load(path));
+        GENERATION.incrementAndGet();
+        for (String dependent : List.copyOf(DEPENDENTS.getOrDefault(path, Set.of()))) {
+            reload(dependent, visited);
+        }
+        return true;
+    }
+
+    /**
+     * Invalidate rule of path then its dependents, each rule at most once
+     * */
+    private static void invalidate(String path, Set<String> visited) {
+        if (!visited.add(path)) return;
+        RULES.invalidate(path);
+        for (String dependent : List.copyOf(DEPENDENTS.getOrDefault(path, Set.of()))) {
+            invalidate(dependent, visited);
+        }
+        synchronized (RuleRegistry.class) {
+            replaceElements(path, Set.of());
+        }
+    }
+
+    /**
+     * Replace the element rules linked by rule of path
+     * <p>
+     * Element rules already in registry are linked without being loaded again, so the
+     * {@link #LOADING} check cannot see a cycle closed by editing a file. The dependency
+     * graph is walked from the new element rules first and the link is refused if it
+     * lead back to path.
+     * @throws ValidationException if the new links make a cycle
+     * */
+    private static synchronized void link(String path, Set<String> elements) {
+        for (String element : elements) {
+            List<String> chain = findPath(element, path, new ArrayList<>(), new HashSet<>());
+            if (chain != null) {
+                chain.add(0, path);
+                throw new ValidationException(Map.of(
+                        ValidationUtils.RULE_KEY,
+                        String.format(ValidationUtils.CYCLIC_RULE_REFERENCE_PATTERN, String.join(" -> ", chain))));
+            }
+        }
+        replaceElements(path, elements);
+    }
+
+    /**
+     * Depth first search of target from path through the linked element rules
+     * @return the chain from path to target, null if target is not reachable
+     * */
+    private static List<String> findPath(String path, String target, List<String> chain, Set<String> visited) {
+        chain.add(path);
+        if (path.equals(target)) return chain;
+        if (visited.add(path)) {
+            for (String element : ELEMENTS.getOrDefault(path, Set.of())) {
+                if (findPath(element, target, chain, visited) != null) return chain;
+            }
+        }
+        chain.remove(chain.size() - 1);
+        return null;
+    }
+
+    /**
+     * Replace the outgoing edges of path and the matching {@link #DEPENDENTS} entries,
+     * caller must hold the class lock
+     * */
+    private static void replaceElements(String path, Set<String> elements) {
+        Set<String> previous = elements.isEmpty() ? ELEMENTS.remove(path) : ELEMENTS.put(path, elements);
+        if (previous != null) {
+            for (String element : previous) {
+                if (elements.contains(element)) continue;
+                Set<String> dependents = DEPENDENTS.get(element);
+                if (dependents != null) dependents.remove(path);
+            }
+        }
+        for (String element : elements) {
+            DEPENDENTS.computeIfAbsent(element, k -> ConcurrentHashMap.newKeySet()).add(path);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.nxt.lib.validation.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watch the rule directory and reload the changed rule files
+ * <p>
+ * A background thread wait for file system events of the rule directory (see
+ * {@link ValidationSettings#setRuleDirectory(Path)}) and its sub directories. Changes are
+ * collected for {@link #DEBOUNCE_MILLIS} so that an editor writing a file in many steps
+ * trigger a single reload, then every changed rule that is in {@code RuleRegistry} is
+ * compiled again and swapped in with {@link RuleRegistry#reload(String)}. Deleted rule
+ * is invalidated and will be loaded from class path on next use. Rule that is not in the
+ * registry yet is ignored, it will be loaded from the directory on first use.
+ * <p>
+ * Rule file with invalid structure is logged and the rule keep its previous version.
+ * The validation hot path never touch the file system, it only read the registry.
+ * @see RuleRegistry
+ * @author Truong Ngo
+ * */
+@Slf4j
+public class RuleReloader implements AutoCloseable {
+
+    /**
+     * Quiet period before changed files are reloaded
+     * */
+    public static final long DEBOUNCE_MILLIS = 200;
+
+    /**
+     * Watched rule directory
+     * */
+    private final Path directory;
+
+    private final WatchService watchService;
+
+    /**
+     * Directory of every registered watch key
+     * */
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+
+    private final Thread thread;
+
+    /**
+     * Construct reloader of the rule directory, the directory must be set in {@code ValidationSettings}
+     * @throws IOException if the directory cannot be watched
+     * @throws IllegalStateException if there is no rule directory
+     * */
+    public RuleReloader() throws IOException {
+        this.directory = ValidationSettings.getRuleDirectory();
+        if (Objects.isNull(directory)) throw new IllegalStateException("Rule directory is not set");
+        this.watchService = directory.getFileSystem().newWatchService();
+        register(directory);
+        this.thread = new Thread(this::run, "rule-reloader");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Start watching
+     * @return this reloader
+     * */
+    public RuleReloader start() {
+        thread.start();
+        log.info("Watching validation rules in {}", directory);
+        return this;
+    }
+
+    /**
+     * Stop watching
+     * */
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watchService.close();
+    }
+
+    /**
+     * Register directory and its sub directories
+     * */
+    private void register(Path root) throws IOException {
+        try (var paths = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                keys.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+            }
+        }
+    }
+
+    /**
+     * Wait for changes, debounce them then reload
+     * */
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changes = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collect(key, changes);
+                    key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                changes.forEach(this::reload);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Collect changed files of key, register new sub directories
+     * */
+    private void collect(WatchKey key, Set<Path> changes) {
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || Objects.isNull(dir)) continue;
+            Path file = dir.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(file)) {
+                try {
+                    register(file);
+                } catch (IOException e) {
+                    log.warn("Cannot watch rule directory {}: {}", file, e.getMessage());
+                }
+            } else {
+                changes.add(file);
+            }
+        }
+        if (!key.reset()) keys.remove(key);
+    }
+
+    /**
+     * Reload rule of a changed file
+     * */
+    private void reload(Path file) {
+        String path = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+        try {
+            if (!Files.exists(file)) {
+                RuleRegistry.invalidate(path);
+                log.info("Validation rule {} deleted", path);
+            } else if (RuleRegistry.reload(path)) {
+                log.info("Validation rule {} reloaded", path);
+            }
+        } catch (ValidationException e) {
+            log.warn("Validation rule {} not reloaded, keep previous version: {}", path, e.getMessages());
+        } catch (RuntimeException e) {
+            log.warn("Validation rule {} not reloaded, keep previous version", path, e);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.utils.ClassUtils;
+import com.nxt.lib.utils.SpElExpression;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Direct evaluation of the simple rule expression shapes, without SpEl
+ * <p>
+ * Recognized when the rule is compiled, from the SpEl AST of the expression:
+ * <ul>
+ *     <li>{@code x != null}, {@code x == null}</li>
+ *     <li>{@code x op N}, {@code x.size() op N}, {@code x.size() op y} with op one of
+ *     {@code == != > >= < <=} and N an integer literal</li>
+ *     <li>{@code x matches 'regex'}</li>
+ *     <li>{@code a && b}, {@code a || b} of the shapes above</li>
+ * </ul>
+ * where x, y are properties of the root object. Properties are read through cached getter
+ * handles (see {@link ClassUtils#getGetter(Class, String)}), or through the property memo
+ * of the validation pass when it is enabled, regex is compiled once. Regex
+ * keep the guards of SpEl {@code matches}: pattern longer than {@link #MAX_REGEX_LENGTH} is
+ * left to SpEl, and matching stop after {@link #PATTERN_ACCESS_THRESHOLD} character reads
+ * so that a catastrophic backtracking is reported by SpEl instead of hanging.
+ * <p>
+ * The result is the same as SpEl: null is lower than any value, numbers are compared by
+ * value. Whenever a value is outside of what is handled here (no getter, non integral
+ * or double number, {@code size()} of something else than collection or map, null operand
+ * of {@code matches} or {@code size()}...) the evaluation answer {@link #UNKNOWN} and the
+ * caller evaluate the expression with SpEl, which also report the evaluation error if any.
+ * @see ValidationSettings#setDirectAccess(boolean)
+ * @author Truong Ngo
+ * */
+abstract class SimpleExpression {
+
+    /**
+     * Evaluation results
+     * */
+    static final int FALSE = 0, TRUE = 1, UNKNOWN = -1;
+
+    /**
+     * Maximum regex length of {@code matches}, same as SpEl
+     * */
+    static final int MAX_REGEX_LENGTH = 1000;
+
+    /**
+     * Maximum character reads of one {@code matches} evaluation, same as SpEl
+     * */
+    static final int PATTERN_ACCESS_THRESHOLD = 1000000;
+
+    /**
+     * Operand value that cannot be resolved here
+     * */
+    private static final Object UNRESOLVED = new Object();
+
+    /**
+     * Evaluate the expression on root object
+     * @param root object validated
+     * @return {@link #TRUE}, {@link #FALSE} or {@link #UNKNOWN} if SpEl must be used
+     * */
+    abstract int test(Object root);
+
+    /**
+     * Recognize simple expression
+     * @param expression parsed expression, may be null
+     * @return direct evaluation of the expression, null if the expression shape is not simple
+     * */
+    static SimpleExpression recognize(SpElExpression expression) {
+        return Objects.isNull(expression) ? null : predicate(expression.getAST());
+    }
+
+    private static SimpleExpression predicate(SpelNode node) {
+        if (node instanceof OpAnd || node instanceof OpOr) {
+            SimpleExpression left = predicate(node.getChild(0));
+            SimpleExpression right = predicate(node.getChild(1));
+            if (left == null || right == null) return null;
+            return node instanceof OpAnd ? new And(left, right) : new Or(left, right);
+        }
+        if (node instanceof OperatorMatches) {
+            Operand left = operand(node.getChild(0));
+            if (!(left instanceof Property) || !(node.getChild(1) instanceof StringLiteral literal)) return null;
+            String regex = (String) literal.getLiteralValue().getValue();
+            if (regex.length() > MAX_REGEX_LENGTH) return null; // Reported by SpEl on evaluation
+            try {
+                return new Matches(left, Pattern.compile(regex));
+            } catch (PatternSyntaxException e) {
+                return null; // Reported by SpEl on evaluation
+            }
+        }
+        int operator = operator(node);
+        if (operator < 0) return null;
+        Operand left = operand(node.getChild(0));
+        Operand right = operand(node.getChild(1));
+        if (left == null || right == null) return null;
+        return new Compare(operator, left, right);
+    }
+
+    /**
+     * Comparison operators
+     * */
+    private static final int EQ = 0, NE = 1, GT = 2, GE = 3, LT = 4, LE = 5;
+
+    private static int operator(SpelNode node) {
+        if (node instanceof OpEQ) return EQ;
+        if (node instanceof OpNE) return NE;
+        if (node instanceof OpGT) return GT;
+        if (node instanceof OpGE) return GE;
+        if (node instanceof OpLT) return LT;
+        if (node instanceof OpLE) return LE;
+        return -1;
+    }
+
+    private static Operand operand(SpelNode node) {
+        if (node instanceof NullLiteral) return new Null();
+        if (node instanceof IntLiteral literal) return new Constant(literal.getLiteralValue().getValue());
+        if (node instanceof LongLiteral literal) return new Constant(literal.getLiteralValue().getValue());
+        if (node instanceof PropertyOrFieldReference property && !property.isNullSafe()) return new Property(property.getName());
+        if (node instanceof CompoundExpression compound && compound.getChildCount() == 2 &&
+                compound.getChild(0) instanceof PropertyOrFieldReference property && !property.isNullSafe() &&
+                compound.getChild(1) instanceof MethodReference method && !method.isNullSafe() &&
+                method.getName().equals("size") && method.getChildCount() == 0) {
+            return new Size(new Property(property.getName()));
+        }
+        return null;
+    }
+
+    /**
+     * Left && right
+     * */
+    private static final class And extends SimpleExpression {
+
+        private final SimpleExpression left, right;
+
+        private And(SimpleExpression left, SimpleExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int test(Object root) {
+            int result = left.test(root);
+            return result == TRUE ? right.test(root) : result;
+        }
+    }
+
+    /**
+     * Left || right
+     * */
+    private static final class Or extends SimpleExpression {
+
+        private final SimpleExpression left, right;
+
+        private Or(SimpleExpression left, SimpleExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int test(Object root) {
+            int result = left.test(root);
+            return result == FALSE ? right.test(root) : result;
+        }
+    }
+
+    /**
+     * Property matches regex
+     * */
+    private static final class Matches extends SimpleExpression {
+
+        private final Operand operand;
+
+        private final Pattern pattern;
+
+        private Matches(Operand operand, Pattern pattern) {
+            this.operand = operand;
+            this.pattern = pattern;
+        }
+
+        @Override
+        int test(Object root) {
+            Object value = operand.get(root);
+            if (!(value instanceof String string)) return UNKNOWN;
+            try {
+                return pattern.matcher(new CountedInput(string, new int[1])).matches() ? TRUE : FALSE;
+            } catch (IllegalStateException e) {
+                return UNKNOWN; // Access threshold exceeded, SpEl report the flawed pattern
+            }
+        }
+    }
+
+    /**
+     * Matcher input counting character reads, shared by its sub sequences
+     * */
+    private record CountedInput(CharSequence value, int[] count) implements CharSequence {
+
+        @Override
+        public char charAt(int index) {
+            if (count[0]++ > PATTERN_ACCESS_THRESHOLD) throw new IllegalStateException("Pattern access threshold exceeded");
+            return value.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new CountedInput(value.subSequence(start, end), count);
+        }
+
+        @Override
+        public String toString() {
+            return value.toString();
+        }
+    }
+
+    /**
+     * Comparison of two operands
+     * */
+    private static final class Compare extends SimpleExpression {
+
+        private final int operator;
+
+        private final Operand left, right;
+
+        private Compare(int operator, Operand left, Operand right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int test(Object root) {
+            Object l = left.get(root);
+            if (l == UNRESOLVED) return UNKNOWN;
+            Object r = right.get(root);
+            if (r == UNRESOLVED) return UNKNOWN;
+            if (l == null || r == null) {
+                if (operator == EQ) return l == r ? TRUE : FALSE;
+                if (operator == NE) return l != r ? TRUE : FALSE;
+                return compare(l == null ? (r == null ? 0 : -1) : 1, 0);
+            }
+            if (isIntegral(l) && isIntegral(r)) {
+                return compare(((Number) l).longValue(), ((Number) r).longValue());
+            }
+            if ((l instanceof Double || isIntegral(l)) && (r instanceof Double || isIntegral(r))) {
+                return compare(((Number) l).doubleValue(), ((Number) r).doubleValue());
+            }
+            return UNKNOWN;
+        }
+
+        private int compare(long l, long r) {
+            boolean result = switch (operator) {
+                case EQ -> l == r;
+                case NE -> l != r;
+                case GT -> l > r;
+                case GE -> l >= r;
+                case LT -> l < r;
+                default -> l <= r;
+            };
+            return result ? TRUE : FALSE;
+        }
+
+        private int compare(double l, double r) {
+            boolean result = switch (operator) {
+                case EQ -> l == r;
+                case NE -> l != r;
+                case GT -> l > r;
+                case GE -> l >= r;
+                case LT -> l < r;
+                default -> l <= r;
+            };
+            return result ? TRUE : FALSE;
+        }
+
+        private static boolean isIntegral(Object value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+        }
+    }
+
+    /**
+     * Operand of comparison
+     * */
+    private interface Operand {
+
+        /**
+         * @return operand value, {@link #UNRESOLVED} if it cannot be resolved here
+         * */
+        Object get(Object root);
+    }
+
+    private record Null() implements Operand {
+
+        @Override
+        public Object get(Object root) {
+            return null;
+        }
+    }
+
+    private record Constant(Object value) implements Operand {
+
+        @Override
+        public Object get(Object root) {
+            return value;
+        }
+    }
+
+    /**
+     * Property of root read by its getter, or through the memo of the open validation pass
+     * when property memo is enabled
+     * */
+    private record Property(String name) implements Operand {
+
+        @Override
+        public Object get(Object root) {
+            if (root == null) return UNRESOLVED;
+            ValidationPass pass = ValidationSettings.isPropertyMemo() ? ValidationPass.current() : null;
+            if (pass != null) {
+                try {
+                    return pass.read(root, name);
+                } catch (AccessException e) {
+                    return UNRESOLVED;
+                }
+            }
+            MethodHandle getter = ClassUtils.getGetter(root.getClass(), name);
+            if (getter == null) return UNRESOLVED;
+            try {
+                return (Object) getter.invokeExact(root);
+            } catch (Throwable e) {
+                return UNRESOLVED;
+            }
+        }
+    }
+
+    /**
+     * Size of collection or map property
+     * */
+    private record Size(Property property) implements Operand {
+
+        @Override
+        public Object get(Object root) {
+            Object value = property.get(root);
+            if (value instanceof Collection<?> collection) return collection.size();
+            if (value instanceof Map<?, ?> map) return map.size();
+            return UNRESOLVED;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.nxt.lib.validation.core;
+
+import java.util.AbstractList;
+
+/**
+ * Stand-in for an array that was validated element by element while the payload was
+ * streamed, then discarded
+ * <p>
+ * It only keep the element count, so root rule can still check the nullity and the
+ * size of the array (e.g. {@code departments != null && departments.size() >= 1}).
+ * Element themselves are gone, {@link #get(int)} throw so that a rule reading them
+ * fail instead of seeing null element, {@code StreamingValidator} report it as a rule
+ * configuration error.
+ * @see StreamingValidator
+ * @author Truong Ngo
+ * */
+final class StreamedElements extends AbstractList<Object> {
+
+    /**
+     * Property name of the array
+     * */
+    private final String name;
+
+    /**
+     * Number of element read
+     * */
+    private final int size;
+
+    StreamedElements(String name, int size) {
+        this.name = name;
+        this.size = size;
+    }
+
+    /**
+     * @throws ElementNotKeptException always, element is not kept
+     * */
+    @Override
+    public Object get(int index) {
+        throw new ElementNotKeptException(name, index);
+    }
+
+    /**
+     * Thrown when a rule read an element of a streamed array
+     * */
+    static final class ElementNotKeptException extends UnsupportedOperationException {
+
+        private final String name;
+
+        private ElementNotKeptException(String name, int index) {
+            super("Element of streamed array is not kept: " + name + "[" + index + "]");
+            this.name = name;
+        }
+
+        /**
+         * @return property name of the array
+         * */
+        String getName() {
+            return name;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,20 @@
+package com.nxt.lib.validation.core;
+
+/**
+ * Result of a streaming validation
+ *
+ * @param result       validation result, on abort only contain the element errors found before the abort
+ * @param elementCount number of streamed array element read
+ * @param aborted      true if the read stopped because the error limit was reached
+ * @see StreamingValidator
+ * @author Truong Ngo
+ */
+public record StreamingValidationResult(ValidationResult result, long elementCount, boolean aborted) {
+
+    /**
+     * @return true if the payload is valid
+     * */
+    public boolean isValid() {
+        return result.isValid();
+    }
+}
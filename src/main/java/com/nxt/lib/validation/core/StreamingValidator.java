@@ -0,0 +1,301 @@
+package com.nxt.lib.validation.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nxt.lib.utils.ClassUtils;
+import com.nxt.lib.utils.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Validate a JSON payload while it is read, without binding it entirely in memory
+ * <p>
+ * Every array rule at the root of the rule tree (an {@code arrayElementConfig} on a
+ * property of the root object, e.g. {@code departments} of {@code organization.json}) is
+ * streamed: each element is bound alone, validated against the element rule then
+ * discarded, so the heap only ever hold one element of the array. The other properties
+ * are bound as usual and the root rules are validated at the end, with the streamed
+ * arrays replaced by a size-only stand-in (see {@link StreamedElements}). Root rules can
+ * therefore check the nullity and the size of a streamed array but not its elements: a
+ * root rule reading an element of a streamed array (e.g. {@code departments[0].name != null})
+ * fail the validation with a {@code ValidationException} naming the rule file and the array.
+ * <p>
+ * Element errors are only kept aside while reading: the array rule is then evaluated on
+ * the bound root like any other rule, its condition and the groups enclosing it decide if
+ * the element errors are reported, so the result is the same as binding the whole payload.
+ * <p>
+ * When the number of invalid element reach the error limit the read is aborted, the
+ * result then only contain the element errors found so far and the root rules are not
+ * evaluated. Only array whose errors are reported whatever the rest of the payload (no
+ * condition on the array nor on its enclosing groups, only and groups) can abort the read,
+ * other arrays are read to the end.
+ * <p>
+ * An array is only streamed if it is the target of a single array rule, its property
+ * name match the JSON field name and the property type is {@code List}.
+ * @see StreamingValidationResult
+ * @author Truong Ngo
+ * */
+public class StreamingValidator {
+
+    /**
+     * Mapper use to bind element and root properties
+     * */
+    private final ObjectMapper mapper;
+
+    /**
+     * Construct with the shared mapper of {@link IOUtils#getObjectMapper()}
+     * */
+    public StreamingValidator() {
+        this(IOUtils.getObjectMapper());
+    }
+
+    /**
+     * Construct with a mapper, e.g. the one configured by Spring
+     * @param mapper mapper use to bind element and root properties
+     * */
+    public StreamingValidator(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Validate a JSON payload from stream, the stream is closed at the end
+     * @param rulePath rule of the root object
+     * @param rootType type of the root object
+     * @param in JSON payload
+     * @param errorLimit number of invalid element that abort the read, 0 for no limit
+     * @return validation result
+     * @throws IOException if the payload cannot be read or bound
+     * @throws ValidationException if the rule cannot be loaded or an expression is invalid
+     * */
+    public StreamingValidationResult validate(String rulePath, Class<?> rootType, InputStream in, int errorLimit) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            return validate(rulePath, rootType, parser, errorLimit);
+        }
+    }
+
+    /**
+     * Validate a JSON payload from parser
+     * @param rulePath rule of the root object
+     * @param rootType type of the root object
+     * @param parser parser positioned before or at the root object
+     * @param errorLimit number of invalid element that abort the read, 0 for no limit
+     * @return validation result
+     * @throws IOException if the payload cannot be read or bound
+     * @throws ValidationException if the rule cannot be loaded, an expression is invalid or a
+     * root rule read an element of a streamed array
+     * */
+    public StreamingValidationResult validate(String rulePath, Class<?> rootType, JsonParser parser, int errorLimit) throws IOException {
+        CompiledRule rule = RuleRegistry.getValidator(rulePath);
+        Map<String, StreamedArray> arrays = findStreamedArrays(rule, rootType);
+
+        JsonToken token = parser.currentToken() != null ? parser.currentToken() : parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Payload root must be a JSON object");
+        }
+
+        ObjectNode skeleton = mapper.createObjectNode();
+        Violation.And errors = new Violation.And(rule.getSourceConfiguration().getGroupType());
+        int errorCount = 0;
+        long elementCount = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            token = parser.nextToken();
+            StreamedArray array = arrays.get(name);
+            if (array == null || token != JsonToken.START_ARRAY) {
+                skeleton.set(name, mapper.readTree(parser));
+                continue;
+            }
+            boolean completed = array.read(parser, errorLimit > 0 ? errorLimit - errorCount : 0);
+            elementCount += array.count;
+            if (array.abortable && array.violation != null) {
+                errors.add(array.violation);
+                errorCount += array.violation.size();
+            }
+            if (!completed) {
+                return new StreamingValidationResult(new ValidationResult(errors), elementCount, true);
+            }
+        }
+
+        Object root = mapper.treeToValue(skeleton, rootType);
+        Map<CompiledRule, StreamedArray> streamed = new IdentityHashMap<>();
+        for (StreamedArray array : arrays.values()) {
+            if (!array.read) continue;
+            array.attach(root);
+            streamed.put(array.rule, array);
+        }
+        try {
+            return new StreamingValidationResult(resolve(rule, streamed).validate(root), elementCount, false);
+        } catch (StreamedElements.ElementNotKeptException e) {
+            throw new ValidationException(Map.of(ValidationUtils.RULE_KEY, String.format(
+                    ValidationUtils.STREAMED_ELEMENT_ACCESS_PATTERN, rulePath, e.getName())));
+        }
+    }
+
+    /**
+     * Replace the streamed array rules of the tree by their already known result
+     * @return the rule itself if none of its node is streamed, otherwise a copy of the path to the streamed arrays
+     * */
+    private static CompiledRule resolve(CompiledRule rule, Map<CompiledRule, StreamedArray> streamed) {
+        if (rule instanceof CompiledRule.Metered metered) {
+            CompiledRule resolved = resolve(metered.getRule(), streamed);
+            return resolved == metered.getRule() ? rule : new CompiledRule.Metered(resolved, metered.getMeter());
+        }
+        if (rule instanceof CompiledRule.Array array) {
+            StreamedArray read = streamed.get(array);
+            return read == null ? rule : new StreamedRule(array, read.violation);
+        }
+        if (rule instanceof CompiledRule.Composite composite) {
+            CompiledRule[] subRules = composite.getSubRules();
+            CompiledRule[] resolved = null;
+            for (int i = 0; i < subRules.length; i++) {
+                CompiledRule subRule = resolve(subRules[i], streamed);
+                if (subRule == subRules[i]) continue;
+                if (resolved == null) resolved = subRules.clone();
+                resolved[i] = subRule;
+            }
+            return resolved == null ? rule : new CompiledRule.Composite(composite.getSourceConfiguration(), composite.condition, resolved);
+        }
+        return rule;
+    }
+
+    /**
+     * Find the array rules that can be streamed
+     * */
+    private Map<String, StreamedArray> findStreamedArrays(CompiledRule rule, Class<?> rootType) {
+        Map<CompiledRule.Array, Boolean> candidates = new LinkedHashMap<>();
+        collectArrays(rule, true, candidates);
+        Map<String, Integer> targetCount = new HashMap<>();
+        candidates.keySet().forEach(c -> targetCount.merge(c.getSourceConfiguration().getTarget(), 1, Integer::sum));
+
+        Map<String, StreamedArray> arrays = new HashMap<>();
+        for (Map.Entry<CompiledRule.Array, Boolean> candidate : candidates.entrySet()) {
+            String target = candidate.getKey().getSourceConfiguration().getTarget();
+            if (targetCount.get(target) > 1) continue;
+            Field field = ClassUtils.getField(rootType, target);
+            if (field == null || !field.getType().isAssignableFrom(StreamedElements.class)) continue;
+            JavaType elementType = mapper.getTypeFactory().constructType(field.getGenericType()).getContentType();
+            if (elementType == null) continue;
+            MethodHandle setter = ClassUtils.getFieldSetter(rootType, target);
+            if (setter == null) continue;
+            arrays.put(target, new StreamedArray(candidate.getKey(), setter, elementType, candidate.getValue()));
+        }
+        return arrays;
+    }
+
+    /**
+     * Collect array rules that are not nested in another array
+     * @param reported true if the errors of the node are always reported: only unconditional and groups above it
+     * @param candidates array rules mapped to whether their errors are always reported
+     * */
+    private void collectArrays(CompiledRule rule, boolean reported, Map<CompiledRule.Array, Boolean> candidates) {
+        if (rule instanceof CompiledRule.Metered metered) {
+            collectArrays(metered.getRule(), reported, candidates);
+        } else if (rule instanceof CompiledRule.Array array) {
+            candidates.put(array, reported && array.condition == null);
+        } else if (rule instanceof CompiledRule.Composite composite) {
+            boolean subReported = reported && composite.isAnd() && composite.condition == null;
+            for (CompiledRule subRule : composite.getSubRules()) {
+                collectArrays(subRule, subReported, candidates);
+            }
+        }
+    }
+
+    /**
+     * Array rule whose elements were validated while the payload was read
+     * <p>
+     * Evaluated on the bound root in place of the array rule: its condition is resolved as
+     * usual then the element errors kept aside are returned.
+     * */
+    private static final class StreamedRule extends CompiledRule {
+
+        private final Violation violation;
+
+        private StreamedRule(CompiledRule.Array array, Violation violation) {
+            super(array.getSourceConfiguration(), array.condition);
+            this.violation = violation;
+        }
+
+        @Override
+        Violation evaluate(Object context, boolean failFast) {
+            return isApplied(context) ? violation : null;
+        }
+    }
+
+    /**
+     * Read state of a streamed array
+     * */
+    private final class StreamedArray {
+
+        private final CompiledRule.Array rule;
+
+        private final MethodHandle setter;
+
+        private final JavaType elementType;
+
+        private Violation.Elements violation;
+
+        private int count;
+
+        /**
+         * Errors of the array are reported whatever the rest of the payload, the read can be aborted
+         * */
+        private final boolean abortable;
+
+        private boolean read;
+
+        private StreamedArray(CompiledRule.Array rule, MethodHandle setter, JavaType elementType, boolean abortable) {
+            this.rule = rule;
+            this.setter = setter;
+            this.elementType = elementType;
+            this.abortable = abortable;
+        }
+
+        /**
+         * Bind and validate element one by one, in fail fast mode element after the first invalid one are skipped
+         * @param errorLimit remaining number of invalid element before abort, 0 for no limit
+         * @return false if the error limit is reached
+         * */
+        private boolean read(JsonParser parser, int errorLimit) throws IOException {
+            CompiledRule element = rule.getElementRule();
+            boolean failFast = ValidationSettings.getValidationMode().isFailFast();
+            read = true;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (failFast && violation != null) {
+                    if (token.isStructStart()) parser.skipChildren();
+                    count++;
+                    continue;
+                }
+                Violation elementViolation = element.evaluate(mapper.readValue(parser, elementType), failFast);
+                if (elementViolation != null) {
+                    if (violation == null) violation = rule.newViolation(element);
+                    violation.add(count, elementViolation);
+                    if (abortable && errorLimit > 0 && violation.size() >= errorLimit) {
+                        count++;
+                        return false;
+                    }
+                }
+                count++;
+            }
+            return true;
+        }
+
+        /**
+         * Set the size-only stand-in into the root object
+         * */
+        private void attach(Object root) throws IOException {
+            try {
+                setter.invokeExact(root, (Object) new StreamedElements(rule.getSourceConfiguration().getTarget(), count));
+            } catch (Throwable e) {
+                throw new IOException("Cannot set streamed array: " + rule.getSourceConfiguration().getTarget(), e);
+            }
+        }
+    }
+}
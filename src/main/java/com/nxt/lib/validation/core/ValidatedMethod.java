@@ -0,0 +1,127 @@
+package com.nxt.lib.validation.core;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validation metadata of a method annotated with {@code @Validated}
+ * <p>
+ * Hold the index and rule path of every {@code @Valid} parameter, computed once per
+ * {@code Method} so that the advice does not clone nor scan the parameter annotations
+ * on every invocation. The compiled rules are bound lazily and re-bound only when
+ * the {@code RuleRegistry} generation change (rule invalidated or reloaded).
+ * @see ValidationAspect
+ * @author Truong Ngo
+ * */
+final class ValidatedMethod {
+
+    /**
+     * Metadata of every intercepted method
+     * */
+    private static final Map<Method, ValidatedMethod> METHODS = new ConcurrentHashMap<>();
+
+    /**
+     * Index of {@code @Valid} parameters
+     * */
+    private final int[] indexes;
+
+    /**
+     * Rule path of {@code @Valid} parameters, same order as {@link #indexes}
+     * */
+    private final String[] paths;
+
+    /**
+     * Declared type of {@code @Valid} parameters, same order as {@link #indexes}
+     * */
+    private final Class<?>[] types;
+
+    /**
+     * Compiled rules bound to the registry generation they were taken from
+     * */
+    private volatile Binding binding;
+
+    private ValidatedMethod(int[] indexes, String[] paths, Class<?>[] types) {
+        this.indexes = indexes;
+        this.paths = paths;
+        this.types = types;
+    }
+
+    /**
+     * Get metadata of method, compute it on first call
+     * @param method method annotated with {@code @Validated}
+     * @return validation metadata
+     * */
+    static ValidatedMethod of(Method method) {
+        ValidatedMethod validatedMethod = METHODS.get(method);
+        return validatedMethod != null ? validatedMethod : METHODS.computeIfAbsent(method, ValidatedMethod::inspect);
+    }
+
+    /**
+     * @return index of {@code @Valid} parameters
+     * */
+    int[] getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * @return rule path of {@code @Valid} parameters
+     * */
+    String[] getPaths() {
+        return paths;
+    }
+
+    /**
+     * @return declared type of {@code @Valid} parameters, same order as {@link #getIndexes()}
+     * */
+    Class<?>[] getTypes() {
+        return types;
+    }
+
+    /**
+     * @return compiled rule of {@code @Valid} parameters, same order as {@link #getIndexes()}
+     * @throws ValidationException if a rule cannot be loaded
+     * */
+    CompiledRule[] getRules() {
+        int generation = RuleRegistry.getGeneration();
+        Binding current = binding;
+        if (current == null || current.generation != generation) {
+            CompiledRule[] rules = new CompiledRule[paths.length];
+            for (int i = 0; i < paths.length; i++) {
+                rules[i] = RuleRegistry.getValidator(paths[i]);
+            }
+            current = new Binding(generation, rules);
+            binding = current;
+        }
+        return current.rules;
+    }
+
+    /**
+     * Scan parameter annotations of method
+     * */
+    private static ValidatedMethod inspect(Method method) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        List<Integer> indexes = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        List<Class<?>> types = new ArrayList<>();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof Valid validAnnotation) {
+                    indexes.add(i);
+                    paths.add(validAnnotation.rule());
+                    types.add(parameterTypes[i]);
+                }
+            }
+        }
+        return new ValidatedMethod(indexes.stream().mapToInt(Integer::intValue).toArray(), paths.toArray(String[]::new), types.toArray(Class<?>[]::new));
+    }
+
+    /**
+     * Compiled rules and the registry generation
+     * */
+    private record Binding(int generation, CompiledRule[] rules) {}
+}
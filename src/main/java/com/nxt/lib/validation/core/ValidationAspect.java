@@ -1,13 +1,13 @@
 package com.nxt.lib.validation.core;
 
-import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Intercept method invocation to perform validation
@@ -21,38 +21,78 @@ import java.lang.reflect.Method;
 @Component
 public class ValidationAspect {
 
+    /**
+     * Indicate Reactor is on the class path
+     * */
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Mono", ValidationAspect.class.getClassLoader());
+
     /**
      * Entry point that intercept method annotated with {@code Validated} annotation
      * and perform validation
      * <p>
      * Find the method that annotated with {@code Validated} in the invocation chain
      * (invoke only through dependency injection), if exist a method then find the
-     * parameter annotated with {@code @Valid} and pass the parameter and rule
-     * configuration to the {@code ValidationExecutor} to perform validation
+     * parameter annotated with {@code @Valid} and validate the parameter with the
+     * compiled rule taken from {@code RuleRegistry}, so the rule file is only read
+     * and compiled once. The {@code @Valid} parameter indexes and their rules are
+     * computed once per method (see {@link ValidatedMethod})
      * <p>
      * If the validation process success then continue to invoke the method otherwise
-     * throw {@code ValidationException} along with all the invalid field and message
-     * @see ValidationExecutor
-     * @throws ValidationException if method parameter validation is failed
+     * throw {@code ValidationRejectedException} along with all the invalid field and message
+     * <p>
+     * Parameter whose value is not available yet ({@code CompletableFuture} and other
+     * {@code CompletionStage}, Reactor {@code Mono} and {@code Flux}) is replaced by a
+     * validated copy of it, see {@link AsyncValidator} and {@link ReactiveValidator}. A stage
+     * is replaced by a {@code CompletableFuture} (of the same class for a subclass overriding
+     * {@code newIncompleteFuture}), the parameter must be declared with a type it fit in,
+     * e.g. {@code CompletionStage} or {@code CompletableFuture}, otherwise the invocation fail
+     * with {@code IllegalStateException}. Cancelling the replacement cancel the original
+     * future. For these parameters the contract is different from the synchronous one:
+     * <ul>
+     *     <li>the method is invoked right away, before the value is available and validated,
+     *     nothing is thrown by the aspect</li>
+     *     <li>an invalid value fail the parameter itself: the stage complete exceptionally and
+     *     the publisher signal an error, both with {@code ValidationRejectedException}</li>
+     *     <li>only the work the method chain on the parameter is guarded, a side effect done
+     *     before or beside consuming it (e.g. writing a log or a row up front) still happen
+     *     when the value turn out invalid, and a parameter never consumed is never validated</li>
+     * </ul>
+     * @see RuleRegistry
+     * @see CompiledRule
+     * @throws ValidationRejectedException if method parameter validation is failed
      * */
-    @Before("@annotation(com.nxt.lib.validation.core.Validated)")
-    public void validate(JoinPoint joinPoint) {
+    @Around("@annotation(com.nxt.lib.validation.core.Validated)")
+    public Object validate(ProceedingJoinPoint joinPoint) throws Throwable {
 
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        Object[] args = joinPoint.getArgs();
-        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        ValidatedMethod validatedMethod = ValidatedMethod.of(signature.getMethod());
+        int[] indexes = validatedMethod.getIndexes();
+        if (indexes.length == 0) return joinPoint.proceed();
 
-        for (int i = 0; i < parameterAnnotations.length; i++) {
-            for (Annotation annotation : parameterAnnotations[i]) {
-                if (annotation instanceof Valid validAnnotation) {
-                    String path = validAnnotation.rule();
-                    RuleConfiguration rule = ValidationUtils.getRuleConfiguration(path);
-                    rule.checkFormat(); // Ensure that the configuration is valid
-                    ValidationResult result = new ValidationExecutor(rule, args[i]).validate();
-                    if (!result.isValid()) throw new ValidationException(result.getMessages());
+        Object[] args = joinPoint.getArgs();
+        CompiledRule[] rules = validatedMethod.getRules();
+        Class<?>[] types = validatedMethod.getTypes();
+        boolean deferred = false;
+        for (int i = 0; i < indexes.length; i++) {
+            Object arg = args[indexes[i]];
+            if (arg instanceof CompletionStage<?> stage) {
+                Object validated = AsyncValidator.validated(rules[i], stage);
+                if (!types[i].isInstance(validated)) {
+                    throw new IllegalStateException("Cannot validate @Valid parameter " + indexes[i] + " of " +
+                            signature.getMethod() + ": a " + types[i].getName() + " cannot be replaced by a " +
+                            validated.getClass().getName() + ", declare it as CompletionStage or CompletableFuture");
                 }
+                args[indexes[i]] = validated;
+                deferred = true;
+            } else if (REACTOR_PRESENT && ReactiveValidator.isPublisher(arg)) {
+                args[indexes[i]] = ReactiveValidator.validate(rules[i], arg);
+                deferred = true;
+            } else {
+                ValidationResult result = rules[i].validate(arg);
+                if (!result.isValid()) throw new ValidationRejectedException(result.getMessages());
             }
         }
+        return deferred ? joinPoint.proceed(args) : joinPoint.proceed();
     }
 }
@@ -0,0 +1,106 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.utils.SpElExpression;
+import com.nxt.lib.utils.SpElUtils;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compile {@code RuleConfiguration} tree into {@code CompiledRule}
+ * <p>
+ * Every node of the tree is format-checked and turned into its executable form, the
+ * expressions are parsed with the compiler mode of {@link ValidationSettings}. An
+ * expression with invalid syntax fail the compilation with the same message the node
+ * would report when evaluated: and / or groups stop at their first deciding sub rule (see
+ * {@link CompiledRule.Composite}), so a broken sub rule after it would otherwise go unnoticed.
+ * <p>
+ * Array element rule is linked at compile time: it is taken from {@code RuleRegistry}
+ * (loaded there if needed) so every array referencing the same file share one compiled
+ * element rule and the validation never look it up again. Cyclic reference between rule
+ * files is rejected by the registry.
+ * <p>
+ * When metrics are enabled (see {@link ValidationMetrics}) every node is wrapped with
+ * its meters, tagged by the rule file it come from.
+ * @see CompiledRule
+ * @author Truong Ngo
+ * */
+public class ValidationCompiler {
+
+    /**
+     * Prevent instantiate
+     * */
+    private ValidationCompiler() {}
+
+    /**
+     * Compile rule configuration tree
+     * @param configuration root of the rule tree
+     * @return compiled rule
+     * @throws ValidationException if a node of the tree is neither basic, composite nor array form, an
+     * expression syntax is invalid or an array element rule cannot be loaded
+     * */
+    public static CompiledRule compile(RuleConfiguration configuration) {
+        return compile(configuration, null);
+    }
+
+    /**
+     * Compile rule configuration tree of a rule file
+     * @param configuration root of the rule tree
+     * @param ruleFile path of the rule file, use to tag the metrics, null if configuration is not from a file
+     * @return compiled rule
+     * @throws ValidationException if a node of the tree is neither basic, composite nor array form, an
+     * expression syntax is invalid or an array element rule cannot be loaded
+     * */
+    public static CompiledRule compile(RuleConfiguration configuration, String ruleFile) {
+        return instrument(compileNode(configuration, ruleFile), ruleFile);
+    }
+
+    /**
+     * Compile a node without its meters
+     * */
+    private static CompiledRule compileNode(RuleConfiguration configuration, String ruleFile) {
+        configuration.checkFormat();
+        SpelCompilerMode mode = ValidationSettings.getCompilerMode();
+        SpElExpression condition = parse(configuration.getCondition(), mode,
+                configuration, String.format(ValidationUtils.INVALID_CONDITION_SYNTAX_PATTERN, configuration.getCondition()));
+        if (configuration.isArrayConfiguration()) {
+            SpElExpression elementAccessor = parse("#this." + configuration.getTarget(), mode,
+                    configuration, ValidationUtils.INVALID_RULE_MESSAGE);
+            CompiledRule elementRule = RuleRegistry.getValidator(configuration.getArrayElementConfig());
+            return new CompiledRule.Array(configuration, condition, elementAccessor, elementRule);
+        }
+        if (configuration.isBasicConfiguration()) {
+            SpElExpression ruleExpression = parse(configuration.getRuleExpression(), mode,
+                    configuration, String.format(ValidationUtils.INVALID_EXPRESSION_SYNTAX_PATTERN, configuration.getRuleExpression()));
+            return new CompiledRule.Basic(configuration, condition, ruleExpression);
+        }
+        List<RuleConfiguration> subRules = configuration.getSubRules();
+        CompiledRule[] compiledSubRules = new CompiledRule[subRules.size()];
+        for (int i = 0; i < compiledSubRules.length; i++) {
+            compiledSubRules[i] = compile(subRules.get(i), ruleFile);
+        }
+        return new CompiledRule.Composite(configuration, condition, compiledSubRules);
+    }
+
+    /**
+     * @return rule wrapped with its meters, the rule itself if metrics are disabled
+     * */
+    private static CompiledRule instrument(CompiledRule rule, String ruleFile) {
+        ValidationMetrics.RuleMeter meter = ValidationMetrics.meter(ruleFile, rule.getSourceConfiguration());
+        return Objects.isNull(meter) ? rule : new CompiledRule.Metered(rule, meter);
+    }
+
+    /**
+     * @return parsed expression, null if expression is null
+     * @throws ValidationException with the message keyed by target if the expression syntax is
+     * invalid or the expression write (validation only read the object)
+     * */
+    private static SpElExpression parse(String expression, SpelCompilerMode mode, RuleConfiguration configuration, String message) {
+        if (Objects.isNull(expression)) return null;
+        SpElExpression parsed = SpElUtils.parse(expression, mode).filter(exp -> !SpElUtils.isWriting(exp)).orElse(null);
+        if (Objects.isNull(parsed)) throw new ValidationException(Map.of(configuration.getTarget(), message));
+        return parsed;
+    }
+}
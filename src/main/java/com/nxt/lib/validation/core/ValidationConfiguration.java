@@ -0,0 +1,85 @@
+package com.nxt.lib.validation.core;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Spring wiring of the validation engine
+ * <ul>
+ *     <li>{@code validation.metrics.enabled=true}: bind validation metrics to the application
+ *     {@code MeterRegistry}, the latency sampling is set by {@code validation.metrics.sample-interval}
+ *     and the latency histogram by {@code validation.metrics.percentile-histogram}. Off by default,
+ *     it needs Micrometer and the actuator on the class path (optional dependencies)</li>
+ *     <li>{@code validation.rules.directory}: read rule files from the directory before class path
+ *     and reload them when they change</li>
+ * </ul>
+ * Settings are reset when the context is closed.
+ * @see ValidationMetrics
+ * @see ValidationEndpoint
+ * @see RuleReloader
+ * @author Truong Ngo
+ * */
+@Configuration
+public class ValidationConfiguration implements DisposableBean {
+
+    /**
+     * Micrometer registry class, metrics are only wired if present
+     * */
+    static final String METER_REGISTRY_CLASS = "io.micrometer.core.instrument.MeterRegistry";
+
+    /**
+     * Actuator endpoint annotation class, metrics are only wired if present
+     * */
+    static final String ENDPOINT_CLASS = "org.springframework.boot.actuate.endpoint.annotation.Endpoint";
+
+    /**
+     * Metrics wiring, only read when Micrometer and the actuator are present
+     * */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = {METER_REGISTRY_CLASS, ENDPOINT_CLASS})
+    @ConditionalOnProperty(prefix = "validation.metrics", name = "enabled", havingValue = "true")
+    static class MetricsConfiguration {
+
+        /**
+         * Bind validation metrics to registry and expose them as actuator endpoint
+         * */
+        @Bean
+        public ValidationEndpoint validationEndpoint(MeterRegistry meterRegistry,
+                                                     @Value("${validation.metrics.sample-interval:100}") int sampleInterval,
+                                                     @Value("${validation.metrics.percentile-histogram:false}") boolean percentileHistogram) {
+            ValidationMetrics.setSampleInterval(sampleInterval);
+            ValidationMetrics.setPercentileHistogram(percentileHistogram);
+            ValidationMetrics.setRegistry(meterRegistry);
+            return new ValidationEndpoint(meterRegistry);
+        }
+    }
+
+    /**
+     * Read rule files from directory and watch it
+     * */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "validation.rules", name = "directory")
+    public RuleReloader ruleReloader(@Value("${validation.rules.directory}") Path directory) throws IOException {
+        ValidationSettings.setRuleDirectory(directory);
+        RuleRegistry.invalidateAll();
+        return new RuleReloader().start();
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(ValidationMetrics.getRegistry())) ValidationMetrics.setRegistry(null);
+        if (Objects.nonNull(ValidationSettings.getRuleDirectory())) {
+            ValidationSettings.setRuleDirectory(null);
+            RuleRegistry.invalidateAll();
+        }
+    }
+}
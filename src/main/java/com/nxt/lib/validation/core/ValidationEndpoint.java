@@ -0,0 +1,62 @@
+package com.nxt.lib.validation.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint {@code /actuator/validation}: per-rule metrics summary
+ * <p>
+ * Group the meters of {@link ValidationMetrics} by rule file then node type and target, e.g.
+ * <pre>
+ * {
+ *   "validation/department.json": {
+ *     "basic:maxSize": {"evaluations": 120, "failures": 3, "sampled": 2, "meanMs": 0.004, "maxMs": 0.006},
+ *     ...
+ *   }
+ * }
+ * </pre>
+ * Latency figures only cover the sampled evaluations.
+ * @see ValidationConfiguration
+ * @author Truong Ngo
+ * */
+@Endpoint(id = "validation")
+public class ValidationEndpoint {
+
+    private final MeterRegistry registry;
+
+    public ValidationEndpoint(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return metrics of every rule node keyed by rule file then {@code type:target}
+     * */
+    @ReadOperation
+    public Map<String, Map<String, Map<String, Object>>> rules() {
+        Map<String, Map<String, Map<String, Object>>> rules = new TreeMap<>();
+        for (Meter meter : registry.getMeters()) {
+            String name = meter.getId().getName();
+            if (!name.startsWith("validation.rule.")) continue;
+            Map<String, Object> stats = rules
+                    .computeIfAbsent(meter.getId().getTag("rule"), k -> new TreeMap<>())
+                    .computeIfAbsent(meter.getId().getTag("type") + ":" + meter.getId().getTag("target"), k -> new LinkedHashMap<>());
+            if (meter instanceof Counter counter) {
+                stats.put(ValidationMetrics.EVALUATIONS.equals(name) ? "evaluations" : "failures", (long) counter.count());
+            } else if (meter instanceof Timer timer) {
+                stats.put("sampled", timer.count());
+                stats.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+                stats.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+            }
+        }
+        return rules;
+    }
+}
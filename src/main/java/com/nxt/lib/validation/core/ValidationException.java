@@ -6,6 +6,11 @@ import java.util.Map;
 
 /**
  * Exception throws during the validation process
+ * <p>
+ * Thrown as is for configuration errors (rule file not found or invalid, invalid expression,
+ * cyclic reference...), with its stack trace. A rejected object is reported by the stackless
+ * {@link ValidationRejectedException}, which also carry the error messages.
+ * @see ValidationRejectedException
  * @author Truong Ngo
  * */
 @Getter
@@ -20,4 +25,14 @@ public class ValidationException extends RuntimeException {
         this.messages = messages;
     }
 
+    /**
+     * Construct without stack trace nor suppressed exception
+     * @param messages error messages
+     * @param stackless true to skip filling the stack trace
+     * */
+    protected ValidationException(Map<String, Object> messages, boolean stackless) {
+        super(null, null, !stackless, !stackless);
+        this.messages = messages;
+    }
+
 }
@@ -0,0 +1,263 @@
+package com.nxt.lib.validation.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-rule Micrometer instrumentation of the validation engine
+ * <p>
+ * Every node of a compiled rule get its own meters, tagged by rule file and target:
+ * <ul>
+ *     <li>{@code validation.rule.evaluations} - number of evaluation</li>
+ *     <li>{@code validation.rule.failures} - number of failed evaluation</li>
+ *     <li>{@code validation.rule.latency} - evaluation latency, sampled</li>
+ * </ul>
+ * The element memo (see {@link ValidationSettings#setElementMemoSize(int)}) count its lookup in
+ * {@code validation.element.memo}, tagged {@code result=hit} or {@code result=miss}.
+ * <p>
+ * Counters are incremented on every evaluation, latency is only recorded for one
+ * evaluation out of {@link #getSampleInterval()} as reading the clock twice per node
+ * cost more than the evaluation of a simple rule. Latency of composite and array node
+ * include their sub rules. The latency timer only publish its percentile histogram
+ * buckets when asked to, see {@link #setPercentileHistogram(boolean)}, as they are a
+ * few dozen extra series per rule node.
+ * <p>
+ * Metrics are disabled until a registry is set, the compiled rules then carry no meter
+ * at all. Setting the registry invalidate {@code RuleRegistry} so that rules are
+ * compiled again with their meters.
+ * @see ValidationConfiguration
+ * @author Truong Ngo
+ * */
+public class ValidationMetrics {
+
+    /**
+     * Counter of evaluation
+     * */
+    public static final String EVALUATIONS = "validation.rule.evaluations";
+
+    /**
+     * Counter of failed evaluation
+     * */
+    public static final String FAILURES = "validation.rule.failures";
+
+    /**
+     * Timer of evaluation
+     * */
+    public static final String LATENCY = "validation.rule.latency";
+
+    /**
+     * Counter of element memo lookup
+     * */
+    public static final String ELEMENT_MEMO = "validation.element.memo";
+
+    /**
+     * Rule tag of configuration compiled without rule file, e.g. by {@code ValidationExecutor}
+     * */
+    public static final String INLINE_RULE = "inline";
+
+    /**
+     * Target tag of rule node without target, e.g. the root group of a rule file
+     * */
+    public static final String ROOT_TARGET = "(root)";
+
+    /**
+     * Registry of meters, null if metrics are disabled
+     * */
+    private static volatile MeterRegistry registry;
+
+    /**
+     * Latency of 1 evaluation out of interval is recorded, 0 to disable timing
+     * */
+    private static volatile int sampleInterval = 100;
+
+    /**
+     * Publish the latency percentile histogram, false by default
+     * */
+    private static volatile boolean percentileHistogram = false;
+
+    /**
+     * Number of threads with a running suppression, the per thread state is only looked up while it is positive
+     * */
+    private static final AtomicInteger SUPPRESSED = new AtomicInteger();
+
+    /**
+     * Number of running suppression of current thread, evaluations of the thread are not recorded while it is positive
+     * */
+    private static final ThreadLocal<int[]> SUPPRESSED_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * {@link RuleMeter#start()} value of a suppressed evaluation
+     * */
+    private static final long SUPPRESSED_START = Long.MIN_VALUE;
+
+    /**
+     * Element memo hit and miss counters, null if metrics are disabled
+     * */
+    private static volatile Counter memoHits, memoMisses;
+
+    /**
+     * Prevent instantiate
+     * */
+    private ValidationMetrics() {}
+
+    /**
+     * @return registry of meters, null if metrics are disabled
+     * */
+    public static MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Enable metrics on registry, or disable it
+     * @param meterRegistry registry of meters, null to disable metrics
+     * */
+    public static void setRegistry(MeterRegistry meterRegistry) {
+        registry = meterRegistry;
+        memoHits = Objects.isNull(meterRegistry) ? null : Counter.builder(ELEMENT_MEMO).tag("result", "hit").register(meterRegistry);
+        memoMisses = Objects.isNull(meterRegistry) ? null : Counter.builder(ELEMENT_MEMO).tag("result", "miss").register(meterRegistry);
+        RuleRegistry.invalidateAll();
+    }
+
+    /**
+     * @return latency of 1 evaluation out of interval is recorded, 0 if timing is disabled
+     * */
+    public static int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Set latency sampling, 1 to time every evaluation
+     * @param interval latency of 1 evaluation out of interval is recorded, 0 to disable timing
+     * */
+    public static void setSampleInterval(int interval) {
+        if (interval < 0) throw new IllegalArgumentException("Sample interval must not be negative: " + interval);
+        sampleInterval = interval;
+    }
+
+    /**
+     * @return true if the latency percentile histogram is published
+     * */
+    public static boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    /**
+     * Publish the latency percentile histogram of every rule node, only affect the meters
+     * registered after the change, see {@link #setRegistry(MeterRegistry)}
+     * @param enabled true to publish the histogram buckets
+     * */
+    public static void setPercentileHistogram(boolean enabled) {
+        percentileHistogram = enabled;
+    }
+
+    /**
+     * Stop recording evaluations of current thread until {@link #resume()}, e.g. during the
+     * startup warm-up
+     * <p>
+     * Suppression is per thread: evaluations of other threads (requests served meanwhile,
+     * array elements validated on the parallel pool) are still recorded. Calls can be nested,
+     * every call must be paired with {@link #resume()} on the same thread.
+     * */
+    static void suppress() {
+        if (SUPPRESSED_DEPTH.get()[0]++ == 0) SUPPRESSED.incrementAndGet();
+    }
+
+    /**
+     * Record evaluations of current thread again, end a {@link #suppress()}
+     * */
+    static void resume() {
+        int[] depth = SUPPRESSED_DEPTH.get();
+        if (--depth[0] == 0) {
+            SUPPRESSED.decrementAndGet();
+            SUPPRESSED_DEPTH.remove();
+        }
+    }
+
+    /**
+     * @return true if evaluations of current thread are not recorded
+     * */
+    private static boolean isSuppressed() {
+        return SUPPRESSED.get() > 0 && SUPPRESSED_DEPTH.get()[0] > 0;
+    }
+
+    /**
+     * Record an element memo lookup
+     * @param hit true if the element result was memoized
+     * */
+    static void recordElementMemo(boolean hit) {
+        Counter counter = hit ? memoHits : memoMisses;
+        if (counter != null && !isSuppressed()) counter.increment();
+    }
+
+    /**
+     * Register the meters of a rule node
+     * @param ruleFile rule file the node come from
+     * @param configuration node configuration
+     * @return meters of the node, null if metrics are disabled
+     * */
+    static RuleMeter meter(String ruleFile, RuleConfiguration configuration) {
+        MeterRegistry meterRegistry = registry;
+        if (Objects.isNull(meterRegistry)) return null;
+        Tags tags = Tags.of(
+                "rule", Objects.isNull(ruleFile) ? INLINE_RULE : ruleFile,
+                "target", Objects.isNull(configuration.getTarget()) ? ROOT_TARGET : configuration.getTarget(),
+                "type", configuration.isArrayConfiguration() ? "array" : configuration.isBasicConfiguration() ? "basic" : "composite");
+        return new RuleMeter(
+                Counter.builder(EVALUATIONS).tags(tags).register(meterRegistry),
+                Counter.builder(FAILURES).tags(tags).register(meterRegistry),
+                Timer.builder(LATENCY).tags(tags).publishPercentileHistogram(percentileHistogram).register(meterRegistry));
+    }
+
+    /**
+     * Meters of a rule node
+     * */
+    static final class RuleMeter {
+
+        private final Counter evaluations;
+
+        private final Counter failures;
+
+        private final Timer latency;
+
+        /**
+         * Evaluations left before the next sampled one, updated without synchronization
+         * as an approximate sampling interval is enough
+         * */
+        private int countdown;
+
+        private RuleMeter(Counter evaluations, Counter failures, Timer latency) {
+            this.evaluations = evaluations;
+            this.failures = failures;
+            this.latency = latency;
+        }
+
+        /**
+         * @return start time if this evaluation is sampled, 0 otherwise
+         * */
+        long start() {
+            if (isSuppressed()) return SUPPRESSED_START;
+            int interval = sampleInterval;
+            if (interval == 0 || --countdown > 0) return 0;
+            countdown = interval;
+            return System.nanoTime();
+        }
+
+        /**
+         * Record an evaluation
+         * @param start value of {@link #start()}
+         * @param failed true if the evaluation failed
+         * */
+        void record(long start, boolean failed) {
+            if (start == SUPPRESSED_START) return;
+            if (start != 0) latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            evaluations.increment();
+            if (failed) failures.increment();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.nxt.lib.validation.core;
+
+/**
+ * How much of a rule tree is evaluated once a failure is found
+ * @see CompiledRule#validate(Object, ValidationMode)
+ * @author Truong Ngo
+ * */
+public enum ValidationMode {
+
+    /**
+     * Evaluate every applied rule and collect the message of all invalid target.
+     * Use when the caller need to report every error (e.g. form validation)
+     * */
+    COLLECT_ALL,
+
+    /**
+     * Stop at the first failure: an and group stop at its first invalid sub rule and
+     * an array stop at its first invalid element. The result only contain the message
+     * of that failure. Use when only a yes / no answer is needed
+     * */
+    FAIL_FAST;
+
+    /**
+     * @return true if mode is fail fast
+     * */
+    public boolean isFailFast() {
+        return this == FAIL_FAST;
+    }
+}
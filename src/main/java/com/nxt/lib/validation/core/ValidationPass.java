@@ -0,0 +1,224 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.utils.ClassUtils;
+import com.nxt.lib.utils.ReadOnlyEvaluationContext;
+import com.nxt.lib.utils.SpElUtils;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypedValue;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Property values read and element results produced during one validation, see
+ * {@link ValidationSettings#setPropertyMemo(boolean)} and {@link ValidationSettings#setElementMemoSize(int)}
+ * <p>
+ * A pass is opened by {@link CompiledRule#validate(Object)} on the calling thread and
+ * closed when it returns. With property memo enabled the interpreted expressions read the
+ * properties through {@link #EVALUATION_CONTEXT}, whose accessor keep every value read while
+ * a pass is open keyed by object identity and property name: a property read by many rules
+ * (e.g. {@code departments} by the rule, the array condition and the array itself) is only
+ * read once. Values are read by the accessors of {@link SpElUtils#getEvaluationContext()}, in
+ * the same order, so the memo never change the result of an expression. The direct evaluation
+ * of simple expressions read through the same memo (see {@link #read(Object, String)}).
+ * Compiled expressions are not memoized.
+ * <p>
+ * Array element results are kept keyed by element rule and element content, bounded to the
+ * most recently used: an element is hashed by the content of its fields (see
+ * {@link ClassUtils#contentHashCode(Object)}) and, on a hash hit, compared field by field
+ * with the memoized one. Distinct instances with the same content (e.g. duplicate records
+ * bound by Jackson) share the result, an equality by id never does. The hash of an instance
+ * is computed once per pass. A violation only depend on the element so it is shared as is,
+ * the array prefix it with the element index when it is rendered.
+ * <p>
+ * The object being validated must not change during the validation. Element validated
+ * on the parallel pool use a pass of the worker thread, opened per batch of elements.
+ * @author Truong Ngo
+ * */
+final class ValidationPass {
+
+    /**
+     * Pass of current thread
+     * */
+    private static final ThreadLocal<ValidationPass> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Accessor reading properties through the pass of current thread
+     * */
+    private static final MemoizingPropertyAccessor ACCESSOR = new MemoizingPropertyAccessor();
+
+    /**
+     * Evaluation context reading properties through the pass of current thread, or directly
+     * when no pass is open
+     * */
+    static final EvaluationContext EVALUATION_CONTEXT = new ReadOnlyEvaluationContext(List.of(ACCESSOR));
+
+    /**
+     * Property values keyed by object identity then property name
+     * */
+    private final Map<Object, Map<String, TypedValue>> values = new IdentityHashMap<>();
+
+    /**
+     * Element results keyed by element rule and element content, created on first use
+     * */
+    private Map<ElementKey, Object> elements;
+
+    /**
+     * Content hash of the elements met, keyed by element identity
+     * */
+    private Map<Object, Integer> hashes;
+
+    /**
+     * Memoized result of valid element
+     * */
+    private static final Object VALID = new Object();
+
+    private ValidationPass() {}
+
+    /**
+     * Open a pass on current thread
+     * @return the pass, null if a pass is already open (nested validation)
+     * */
+    static ValidationPass open() {
+        if (CURRENT.get() != null) return null;
+        ValidationPass pass = new ValidationPass();
+        CURRENT.set(pass);
+        return pass;
+    }
+
+    /**
+     * Close the pass of current thread
+     * */
+    void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return pass of current thread, null if no pass is open
+     * */
+    static ValidationPass current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Read property of target through the memo, with the accessors an interpreted expression
+     * would use, so that direct evaluation and SpEl share the values read
+     * @param target object owning the property, not null
+     * @param name property name
+     * @return property value
+     * @throws AccessException if no accessor can read the property
+     * */
+    Object read(Object target, String name) throws AccessException {
+        return ACCESSOR.read(EVALUATION_CONTEXT, target, name).getValue();
+    }
+
+    /**
+     * Evaluate element against its rule, or reuse the result of an element with the same content
+     * @param element compiled rule of element
+     * @param object element, not null
+     * @param failFast stop at the first failure
+     * @param maxSize maximum number of element result memoized
+     * @return violation of the element, null if element is valid
+     * */
+    Violation evaluateElement(CompiledRule element, Object object, boolean failFast, int maxSize) {
+        if (elements == null) elements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ElementKey, Object> eldest) {
+                return size() > maxSize;
+            }
+        };
+        if (hashes == null) hashes = new IdentityHashMap<>();
+        ElementKey key = new ElementKey(element, hashes.computeIfAbsent(object, ClassUtils::contentHashCode), object);
+        Object result = elements.get(key);
+        ValidationMetrics.recordElementMemo(result != null);
+        if (result != null) return result == VALID ? null : (Violation) result;
+        Violation violation = element.evaluate(object, failFast);
+        elements.put(key, violation == null ? VALID : violation);
+        return violation;
+    }
+
+    /**
+     * Element rule compared by identity and element compared by content
+     * */
+    private record ElementKey(CompiledRule rule, int hash, Object element) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ElementKey other && rule == other.rule && hash == other.hash
+                    && (element == other.element || ClassUtils.contentEquals(element, other.element));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(rule) + hash;
+        }
+    }
+
+    /**
+     * Accessor keeping the value read in the pass of current thread
+     * <p>
+     * Delegate to the first accessor of the shared evaluation context that can read the
+     * property. Not compilable on purpose: it is only used by interpreted expression.
+     * */
+    private static final class MemoizingPropertyAccessor implements PropertyAccessor {
+
+        private final List<PropertyAccessor> delegates = SpElUtils.getEvaluationContext().getPropertyAccessors();
+
+        @Override
+        public Class<?>[] getSpecificTargetClasses() {
+            return null;
+        }
+
+        @Override
+        public boolean canRead(EvaluationContext context, Object target, String name) throws AccessException {
+            return delegate(context, target, name) != null;
+        }
+
+        @Override
+        public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+            ValidationPass pass = CURRENT.get();
+            if (pass == null || target == null) return readThrough(context, target, name);
+            Map<String, TypedValue> properties = pass.values.computeIfAbsent(target, k -> new HashMap<>());
+            TypedValue value = properties.get(name);
+            if (value == null) {
+                value = readThrough(context, target, name);
+                properties.put(name, value);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean canWrite(EvaluationContext context, Object target, String name) {
+            return false;
+        }
+
+        @Override
+        public void write(EvaluationContext context, Object target, String name, Object newValue) throws AccessException {
+            throw new AccessException("Property is read only during validation: " + name);
+        }
+
+        /**
+         * @return value read by the first delegate that can read the property
+         * */
+        private TypedValue readThrough(EvaluationContext context, Object target, String name) throws AccessException {
+            PropertyAccessor delegate = delegate(context, target, name);
+            if (delegate == null) throw new AccessException("Cannot read property " + name);
+            return delegate.read(context, target, name);
+        }
+
+        /**
+         * @return first delegate that can read the property, null if none can
+         * */
+        private PropertyAccessor delegate(EvaluationContext context, Object target, String name) throws AccessException {
+            for (PropertyAccessor delegate : delegates) {
+                if (delegate.canRead(context, target, name)) return delegate;
+            }
+            return null;
+        }
+    }
+}
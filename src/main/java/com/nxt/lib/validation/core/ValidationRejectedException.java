@@ -0,0 +1,19 @@
+package com.nxt.lib.validation.core;
+
+import java.util.Map;
+
+/**
+ * Exception throws when a validated object is rejected
+ * <p>
+ * The exception only carry the error messages as value: it has no stack trace and no
+ * suppressed exception, as it is thrown for every rejected request and filling the
+ * trace would cost more than the validation itself.
+ * @author Truong Ngo
+ * */
+public class ValidationRejectedException extends ValidationException {
+
+    public ValidationRejectedException(Map<String, Object> messages) {
+        super(messages, true);
+    }
+
+}
@@ -1,18 +1,18 @@
 package com.nxt.lib.validation.core;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
 
 import java.util.Map;
 
 /**
  * Validation result
+ * <p>
+ * Result of a compiled rule keep the failure as a structured {@code Violation} and only
+ * render it into {@link #getMessages()} on first read.
  * @author Truong Ngo
  * */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class ValidationResult {
 
     /**
@@ -30,5 +30,59 @@ public class ValidationResult {
      * <p>
      * Contain the all the field is invalid during the validation process
      * */
-    private Map<String, Object> messages;
+    private volatile Map<String, Object> messages;
+
+    /**
+     * Structured failure not rendered yet, null if messages is given directly
+     * */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Violation violation;
+
+    /**
+     * Construct result with its message
+     * @param isValid validation result
+     * @param messages message of invalid fields
+     * */
+    public ValidationResult(boolean isValid, Map<String, Object> messages) {
+        this.isValid = isValid;
+        this.messages = messages;
+    }
+
+    /**
+     * Construct failed result of a structured failure
+     * */
+    ValidationResult(Violation violation) {
+        this.isValid = false;
+        this.violation = violation;
+    }
+
+    /**
+     * @return message of invalid fields, null if result is valid
+     * */
+    public Map<String, Object> getMessages() {
+        Map<String, Object> rendered = messages;
+        if (rendered == null && violation != null) {
+            rendered = violation.render();
+            messages = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * Set message of invalid fields, replace the structured failure if any
+     * */
+    public void setMessages(Map<String, Object> messages) {
+        this.violation = null;
+        this.messages = messages;
+    }
+
+    /**
+     * @return structured failure, null if result is valid or has been built from messages
+     * */
+    Violation getViolation() {
+        return violation;
+    }
 }
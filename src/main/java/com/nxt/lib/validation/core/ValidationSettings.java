@@ -0,0 +1,266 @@
+package com.nxt.lib.validation.core;
+
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide tuning of the validation engine
+ * <p>
+ * Settings are read on the validation hot path so they are kept as plain static
+ * fields. They are meant to be set once at startup, changing them while validation
+ * is running only affect the rules that are evaluated after the change.
+ * @author Truong Ngo
+ * */
+public class ValidationSettings {
+
+    /**
+     * SpEl compiler mode of rule expression, {@code OFF} by default
+     * */
+    private static volatile SpelCompilerMode compilerMode = SpelCompilerMode.OFF;
+
+    /**
+     * Validation mode of {@link CompiledRule#validate(Object)}, {@code COLLECT_ALL} by default
+     * */
+    private static volatile ValidationMode validationMode = ValidationMode.COLLECT_ALL;
+
+    /**
+     * Minimum array size validated in parallel, 0 to always validate sequentially (default)
+     * */
+    private static volatile int parallelThreshold = 0;
+
+    /**
+     * Pool running parallel array validation
+     * */
+    private static volatile ForkJoinPool parallelPool = ForkJoinPool.commonPool();
+
+    /**
+     * Executor of asynchronous validation, virtual thread per task when the runtime support it
+     * */
+    private static volatile ExecutorService asyncExecutor = defaultAsyncExecutor();
+
+    /**
+     * Directory searched for rule file before class path, null to only use class path (default)
+     * */
+    private static volatile Path ruleDirectory;
+
+    /**
+     * Read each property at most once per validation, false by default
+     * */
+    private static volatile boolean propertyMemo = false;
+
+    /**
+     * Maximum number of element result memoized per validation, 0 to disable (default)
+     * */
+    private static volatile int elementMemoSize = 0;
+
+    /**
+     * Evaluate simple expression shapes without SpEl, true by default
+     * */
+    private static volatile boolean directAccess = true;
+
+    /**
+     * Prevent instantiate
+     * */
+    private ValidationSettings() {}
+
+    /**
+     * @return SpEl compiler mode of rule expression
+     * */
+    public static SpelCompilerMode getCompilerMode() {
+        return compilerMode;
+    }
+
+    /**
+     * Set SpEl compiler mode of rule expression, opt-in
+     * <p>
+     * With {@code IMMEDIATE} or {@code MIXED} the condition and rule expressions run as
+     * bytecode after warm-up, expression that cannot be compiled keep being interpreted.
+     * Compiled code is bound to the root type seen during warm-up, a rule validating objects
+     * of different types fall back to interpretation. Only affect rule compiled after the
+     * change, see {@link RuleRegistry#invalidateAll()}.
+     * @param mode compiler mode, {@code OFF} (default) to always interpret
+     * */
+    public static void setCompilerMode(SpelCompilerMode mode) {
+        compilerMode = Objects.requireNonNull(mode);
+    }
+
+    /**
+     * @return default validation mode
+     * */
+    public static ValidationMode getValidationMode() {
+        return validationMode;
+    }
+
+    /**
+     * Set default validation mode, use by {@code ValidationAspect} and every validation
+     * that does not specify its mode
+     * @param mode {@code COLLECT_ALL} to report every error, {@code FAIL_FAST} to stop at first error
+     * */
+    public static void setValidationMode(ValidationMode mode) {
+        validationMode = Objects.requireNonNull(mode);
+    }
+
+    /**
+     * @return minimum array size validated in parallel, 0 if parallel validation is disabled
+     * */
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Enable parallel array element validation
+     * <p>
+     * Array with at least {@code threshold} elements is split across {@link #getParallelPool()},
+     * message keys keep the same order as the sequential validation. Small array stay on the
+     * calling thread as splitting cost more than it saves.
+     * @param threshold minimum array size validated in parallel, 0 to disable
+     * */
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("Parallel threshold must not be negative: " + threshold);
+        parallelThreshold = threshold;
+    }
+
+    /**
+     * @return pool running parallel array validation
+     * */
+    public static ForkJoinPool getParallelPool() {
+        return parallelPool;
+    }
+
+    /**
+     * Set pool running parallel array validation, the common pool by default
+     * @param pool fork join pool
+     * */
+    public static void setParallelPool(ForkJoinPool pool) {
+        parallelPool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * @return executor of asynchronous validation
+     * */
+    public static ExecutorService getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Set executor of asynchronous validation, see {@link AsyncValidator}
+     * <p>
+     * By default a virtual thread is started per validation on JDK 21 and later, a cached
+     * pool of daemon threads is used on older runtime. Rule reading a slow bean block the
+     * executor thread, not the caller.
+     * @param executor executor of asynchronous validation
+     * */
+    public static void setAsyncExecutor(ExecutorService executor) {
+        asyncExecutor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * @return virtual thread per task executor if available, cached daemon thread pool otherwise
+     * */
+    private static ExecutorService defaultAsyncExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "validation-async-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return true if property values are memoized per validation
+     * */
+    public static boolean isPropertyMemo() {
+        return propertyMemo;
+    }
+
+    /**
+     * Memoize property values per validation
+     * <p>
+     * Every property read by the rule expressions is read at most once per validated object
+     * and shared by conditions, rule expressions and array access, with the same accessors
+     * as without memo. Interpreted expressions ({@code OFF} compiler mode) and the direct
+     * evaluation of simple expressions (see {@link #setDirectAccess(boolean)}) are memoized,
+     * compiled expression call the getter directly which is cheaper than the memo lookup.
+     * <p>
+     * The memo cost a map lookup per property read, it only pay off when getters are
+     * expensive (computed or lazy loaded property), plain field getters are faster without.
+     * @param enabled true to memoize property values
+     * */
+    public static void setPropertyMemo(boolean enabled) {
+        propertyMemo = enabled;
+    }
+
+    /**
+     * @return maximum number of element result memoized per validation, 0 if element memo is disabled
+     * */
+    public static int getElementMemoSize() {
+        return elementMemoSize;
+    }
+
+    /**
+     * Memoize array element results per validation
+     * <p>
+     * Element already validated against the same element rule (the same object referenced by
+     * many elements or many arrays, or another instance with the same content) reuse the result
+     * of the first validation, its message keys are still prefixed with its own index. Elements
+     * are compared by the content of their fields, never by {@code equals}: an element equal by
+     * id but with different content is validated. Hashing an element walk all its content, enable
+     * the memo for arrays with duplicates whose rule cost more than that walk.
+     * The memo keep the most recently used results up to {@code size}. Parallel array
+     * validation memoize per batch of elements, on the worker thread.
+     * <p>
+     * It only pay off when duplicate elements are frequent, see the hit rate of
+     * {@link ValidationMetrics#ELEMENT_MEMO}.
+     * @param size maximum number of element result memoized, 0 to disable
+     * */
+    public static void setElementMemoSize(int size) {
+        if (size < 0) throw new IllegalArgumentException("Element memo size must not be negative: " + size);
+        elementMemoSize = size;
+    }
+
+    /**
+     * @return true if simple expression shapes are evaluated without SpEl
+     * */
+    public static boolean isDirectAccess() {
+        return directAccess;
+    }
+
+    /**
+     * Evaluate simple expression shapes ({@code x != null}, {@code x.size() >= 1}, {@code x matches '...'}...)
+     * through getter handles instead of SpEl, with the same result. Only affect rule compiled
+     * after the change, see {@link RuleRegistry#invalidateAll()}.
+     * @param enabled true to evaluate simple expression directly
+     * */
+    public static void setDirectAccess(boolean enabled) {
+        directAccess = enabled;
+    }
+
+    /**
+     * @return directory searched for rule file before class path, null if rule is only read from class path
+     * */
+    public static Path getRuleDirectory() {
+        return ruleDirectory;
+    }
+
+    /**
+     * Set directory searched for rule file before class path
+     * <p>
+     * Rule path is resolved against the directory, e.g. {@code validation/organization.json}
+     * is read from {@code <directory>/validation/organization.json} if it exists there. Only
+     * affect rule loaded after the change, see {@link RuleRegistry#invalidateAll()}.
+     * @param directory rule directory, null to only use class path
+     * */
+    public static void setRuleDirectory(Path directory) {
+        ruleDirectory = Objects.isNull(directory) ? null : directory.toAbsolutePath().normalize();
+    }
+}
@@ -1,11 +1,13 @@
 package com.nxt.lib.validation.core;
 
 import com.nxt.lib.utils.IOUtils;
+import com.nxt.lib.utils.SpElExpression;
 import com.nxt.lib.utils.SpElUtils;
+import org.springframework.expression.spel.SpelCompilerMode;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 
 /**
  * Utility for validation
@@ -53,6 +55,16 @@ public class ValidationUtils {
      * */
     public static final String HEADER_MESSAGE_FOR_OR_CASE_PATTERN = "%s must match at least one of these rule below:";
 
+    /**
+     * Cyclic array element rule reference
+     * */
+    public static final String CYCLIC_RULE_REFERENCE_PATTERN = "Cyclic rule reference: %s!";
+
+    /**
+     * Root rule reading an element of an array that is streamed, see {@code StreamingValidator}
+     * */
+    public static final String STREAMED_ELEMENT_ACCESS_PATTERN = "Rule %s read an element of streamed array %s, only its nullity and size can be checked!";
+
     /**
      * Resolve condition of rule
      * @param config the rule config
@@ -61,13 +73,8 @@ public class ValidationUtils {
      * @throws ValidationException if the condition's string expression is invalid
      * */
     public static Boolean getCondition(RuleConfiguration config, Object context) {
-        return  Objects.isNull(config.getCondition()) ||
-                SpElUtils
-                        .getValue(config.getCondition(), context, Boolean.class)
-                        .orElseThrow(() -> new ValidationException(Map.of(
-                                config.getTarget(),
-                                String.format(INVALID_CONDITION_SYNTAX_PATTERN, config.getCondition())
-                        )));
+        return Objects.isNull(config.getCondition()) ||
+                getCondition(config, parse(config.getCondition()), context);
     }
 
     /**
@@ -78,26 +85,114 @@ public class ValidationUtils {
      * @throws ValidationException if the rule's string expression is invalid
      * */
     public static Boolean getExpressionResult(RuleConfiguration config, Object context) {
-        return SpElUtils
-                .getValue(config.getRuleExpression(), context, Boolean.class)
-                .orElseThrow(() -> new ValidationException(Map.of(
-                        config.getTarget(),
-                        String.format(ValidationUtils.INVALID_EXPRESSION_SYNTAX_PATTERN, config.getRuleExpression())
-                )));
+        return getExpressionResult(config, parse(config.getRuleExpression()), context);
+    }
+
+    /**
+     * Resolve condition of rule with its parsed condition
+     * @param config the rule config
+     * @param condition parsed condition, null if the condition syntax is invalid
+     * @param context object to extract value
+     * @return true if condition is null or resolve result is true, otherwise false
+     * @throws ValidationException if the condition's string expression is invalid
+     * */
+    public static boolean getCondition(RuleConfiguration config, SpElExpression condition, Object context) {
+        if (Objects.isNull(config.getCondition())) return true;
+        Boolean result = Objects.isNull(condition) ? null : getValue(condition, context, Boolean.class);
+        if (Objects.isNull(result)) {
+            throw new ValidationException(Map.of(
+                    config.getTarget(),
+                    String.format(INVALID_CONDITION_SYNTAX_PATTERN, config.getCondition())));
+        }
+        return result;
+    }
+
+    /**
+     * Resolve rule expression with its parsed expression
+     * @param config the rule config
+     * @param expression parsed rule expression, null if the expression syntax is invalid
+     * @param context object to extract value
+     * @return true if resolve result is true, otherwise false
+     * @throws ValidationException if the rule's string expression is invalid
+     * */
+    public static boolean getExpressionResult(RuleConfiguration config, SpElExpression expression, Object context) {
+        Boolean result = Objects.isNull(expression) ? null : getValue(expression, context, Boolean.class);
+        if (Objects.isNull(result)) {
+            throw new ValidationException(Map.of(
+                    config.getTarget(),
+                    String.format(INVALID_EXPRESSION_SYNTAX_PATTERN, config.getRuleExpression())));
+        }
+        return result;
+    }
+
+    /**
+     * @return expression parsed with the compiler mode of {@code ValidationSettings}, null if the syntax is invalid or it write
+     * */
+    private static SpElExpression parse(String expression) {
+        return Objects.isNull(expression) ? null : SpElUtils.parse(expression, ValidationSettings.getCompilerMode())
+                .filter(exp -> !SpElUtils.isWriting(exp)).orElse(null);
+    }
+
+    /**
+     * Evaluate parsed expression, through the memo of {@code ValidationPass} if property memo is
+     * enabled and the expression is interpreted
+     * <p>
+     * The memo context is used even when no pass is open so that an expression always run in
+     * the same context: switching context make Spring look the property accessor up again.
+     * */
+    private static <T> T getValue(SpElExpression expression, Object context, Class<T> clazz) {
+        if (ValidationSettings.isPropertyMemo() && expression.getCompilerMode() == SpelCompilerMode.OFF) {
+            return expression.getValueOrNull(ValidationPass.EVALUATION_CONTEXT, context, clazz);
+        }
+        return expression.getValueOrNull(context, clazz);
     }
 
     /**
      * Get the rule configuration
+     * <p>
+     * The rule file is read from the rule directory of {@link ValidationSettings#getRuleDirectory()}
+     * if it exists there, from the class path otherwise, see {@code IOUtils}
      * @param path the path lead to rule file
      * @return {@code RuleConfiguration} - the configuration as Java object
      * @throws ValidationException if path is invalid or not found or the rule file structure is invalid
      * */
     public static RuleConfiguration getRuleConfiguration(String path) {
-        return IOUtils
-                .getResource(path, RuleConfiguration.class)
-                .orElseThrow(() -> new ValidationException(Map.of(
-                        ValidationUtils.RULE_KEY,
-                        ValidationUtils.INVALID_RULE_MESSAGE)));
+        Path file = getRuleFile(path);
+        Optional<RuleConfiguration> configuration = Objects.nonNull(file) ?
+                IOUtils.getFile(file, RuleConfiguration.class) :
+                IOUtils.getResource(path, RuleConfiguration.class);
+        if (configuration.isEmpty()) {
+            throw new ValidationException(Map.of(ValidationUtils.RULE_KEY, ValidationUtils.INVALID_RULE_MESSAGE));
+        }
+        return configuration.get();
+    }
+
+    /**
+     * Collect the array element rule paths referenced by every node of the rule tree
+     * @param config the rule config
+     * @return element rule paths, in tree order
+     * */
+    public static Set<String> getArrayElementConfigs(RuleConfiguration config) {
+        Set<String> paths = new LinkedHashSet<>();
+        collectArrayElementConfigs(config, paths);
+        return paths;
+    }
+
+    private static void collectArrayElementConfigs(RuleConfiguration config, Set<String> paths) {
+        if (Objects.nonNull(config.getArrayElementConfig())) paths.add(config.getArrayElementConfig());
+        if (Objects.nonNull(config.getSubRules())) config.getSubRules().forEach(subRule -> collectArrayElementConfigs(subRule, paths));
+    }
+
+    /**
+     * Resolve rule path against the rule directory
+     * @param path the path lead to rule file
+     * @return the rule file, null if there is no rule directory or the file does not exist in it
+     * */
+    public static Path getRuleFile(String path) {
+        Path directory = ValidationSettings.getRuleDirectory();
+        if (Objects.isNull(directory)) return null;
+        Path file = directory.resolve(path).normalize();
+        return file.startsWith(directory) && Files.isRegularFile(file) ? file : null;
     }
 
     /**
@@ -107,8 +202,19 @@ public class ValidationUtils {
      * {@code RuleConfiguration.target} is invalid
      * */
     public static List<?> getArrayElement(RuleConfiguration config, Object context) {
-        return (List<?>) SpElUtils
-                .getValue("#this." + config.getTarget(), context, List.class)
-                .orElseThrow(() -> new ValidationException(Map.of(config.getTarget(), INVALID_RULE_MESSAGE)));
+        return getArrayElement(config, parse("#this." + config.getTarget()), context);
+    }
+
+    /**
+     * Get the value of element that is array in configuration with the parsed {@code #this.target} expression
+     * @return {@code List<Object>} as value of array element
+     * @throws ValidationException if the value of {@code RuleConfiguration.target} is invalid
+     * */
+    public static List<?> getArrayElement(RuleConfiguration config, SpElExpression elementAccessor, Object context) {
+        List<?> elements = Objects.isNull(elementAccessor) ? null : getValue(elementAccessor, context, List.class);
+        if (Objects.isNull(elements)) {
+            throw new ValidationException(Map.of(config.getTarget(), INVALID_RULE_MESSAGE));
+        }
+        return elements;
     }
 }
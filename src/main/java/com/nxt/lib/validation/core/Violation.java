@@ -0,0 +1,235 @@
+package com.nxt.lib.validation.core;
+
+import java.util.*;
+
+/**
+ * Structured error of a failed rule
+ * <p>
+ * Compiled rule report its failure as a tree of violation that mirror the rule tree, and
+ * null on success, so validating a valid object allocate nothing. The failure is only
+ * rendered into the {@code Map<String, Object>} message shape when it is read (see
+ * {@link ValidationResult#getMessages()}), e.g. when {@code ValidationException} is thrown.
+ * <p>
+ * Violation is immutable once the rule that produced it returned.
+ * @see CompiledRule
+ * @author Truong Ngo
+ * */
+abstract class Violation {
+
+    /**
+     * @return message of the violation, keyed by target
+     * */
+    abstract Map<String, Object> render();
+
+    /**
+     * Basic rule failed: single message on target
+     * */
+    static final class Basic extends Violation {
+
+        private final String target;
+
+        private final String message;
+
+        Basic(String target, String message) {
+            this.target = target;
+            this.message = message;
+        }
+
+        @Override
+        Map<String, Object> render() {
+            return Map.of(target, message);
+        }
+    }
+
+    /**
+     * And group failed: message of every failed sub rule
+     * */
+    static final class And extends Violation {
+
+        private final RuleConfiguration.RuleGroupType groupType;
+
+        private final List<Violation> violations = new ArrayList<>(4);
+
+        And(RuleConfiguration.RuleGroupType groupType) {
+            this.groupType = groupType;
+        }
+
+        void add(Violation violation) {
+            violations.add(violation);
+        }
+
+        @Override
+        Map<String, Object> render() {
+            Map<String, Object> message = new LinkedHashMap<>();
+            for (Violation violation : violations) {
+                mergeMessage(message, violation.render(), "", groupType);
+            }
+            return completeMessage(message);
+        }
+    }
+
+    /**
+     * Or group failed: message of all sub rule under target, with a header
+     * */
+    static final class Or extends Violation {
+
+        private final String target;
+
+        private final RuleConfiguration.RuleGroupType groupType;
+
+        private final Violation[] violations;
+
+        Or(String target, RuleConfiguration.RuleGroupType groupType, Violation[] violations) {
+            this.target = target;
+            this.groupType = groupType;
+            this.violations = violations;
+        }
+
+        @Override
+        Map<String, Object> render() {
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put(ValidationUtils.MESSAGE_KEY, String.format(ValidationUtils.HEADER_MESSAGE_FOR_OR_CASE_PATTERN, target));
+            Map<String, Object> subMessage = new LinkedHashMap<>();
+            for (Violation violation : violations) {
+                mergeMessage(subMessage, violation.render(), "", groupType);
+            }
+            message.putAll(completeMessage(subMessage));
+            return Map.of(target, message);
+        }
+    }
+
+    /**
+     * Array rule failed: violation of invalid element, keyed by {@code target[index].}
+     * */
+    static final class Elements extends Violation {
+
+        private final String target;
+
+        /**
+         * Group type of the element rule
+         * */
+        private final RuleConfiguration.RuleGroupType groupType;
+
+        private int[] indexes = new int[4];
+
+        private Violation[] violations = new Violation[4];
+
+        private int size;
+
+        Elements(String target, RuleConfiguration.RuleGroupType groupType) {
+            this.target = target;
+            this.groupType = groupType;
+        }
+
+        /**
+         * Add violation of element, in index order
+         * */
+        void add(int index, Violation violation) {
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+                violations = Arrays.copyOf(violations, size * 2);
+            }
+            indexes[size] = index;
+            violations[size++] = violation;
+        }
+
+        /**
+         * @return number of invalid element
+         * */
+        int size() {
+            return size;
+        }
+
+        @Override
+        Map<String, Object> render() {
+            Map<String, Object> message = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                String rootPath = target + "[" + indexes[i] + "]."; // append the root path in key
+                mergeMessage(message, violations[i].render(), rootPath, groupType);
+            }
+            return completeMessage(message);
+        }
+    }
+
+    /**
+     * Put all entry of source message into target message, key is prefixed with
+     * {@code prefix} and value of duplicate key is merged by {@link #combineMessage}
+     * */
+    static void mergeMessage(Map<String, Object> target, Map<String, Object> source, String prefix, RuleConfiguration.RuleGroupType groupType) {
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            target.merge(prefix + entry.getKey(), entry.getValue(), (exist, replace) -> combineMessage(exist, replace, groupType));
+        }
+    }
+
+    /**
+     * Use to merge message ({@code Map<String, Object>}) of every member in group.
+     * If the key is duplicate then this method will merge the values of key into
+     * single value
+     * <p>
+     * Value of key in message is one of two type: {@code String} and {@code List}.
+     * The merge logic is
+     * <ul>
+     *     <li>If two value is string then concatenate two string with the operator (and, or).
+     *     E.g: value a or value b</li>
+     *     <li>If one is String and other is List then add the String to List</li>
+     *     <li>If two value List then merge two list</li>
+     * </ul>
+     * Concatenated string is kept as {@link CombinedMessage} until {@link #completeMessage}
+     * so that many duplicate key are joined in linear time.
+     * @param exist exist value in map
+     * @param replace the duplicate key value
+     * @return merge result object
+     * */
+    @SuppressWarnings("all")
+    static Object combineMessage(Object exist, Object replace, RuleConfiguration.RuleGroupType groupType) {
+        if (exist instanceof CombinedMessage ex) {
+            if (replace instanceof String rp) return ex.append(groupType.isAnd() ? "and" : "or", rp);
+            exist = ex.toString();
+        }
+        if (exist instanceof String ex && replace instanceof String rp) {
+            String operator = groupType.isAnd() ? "and" : "or";
+            return new CombinedMessage(ex).append(operator, rp);
+        } else if (exist instanceof String ex && replace instanceof List rp) {
+            rp.add(ex);
+            return rp;
+        } else if (exist instanceof List ex && replace instanceof String rp) {
+            ex.add(rp);
+            return ex;
+        } else if (exist instanceof List ex && replace instanceof List rp) {
+            ex.addAll(rp);
+            return ex;
+        }
+        return ""; // Never happen as the value only one of String or List;
+    }
+
+    /**
+     * Replace every {@link CombinedMessage} of message by its string
+     * @return the message
+     * */
+    static Map<String, Object> completeMessage(Map<String, Object> message) {
+        message.replaceAll((key, value) -> value instanceof CombinedMessage combined ? combined.toString() : value);
+        return message;
+    }
+
+    /**
+     * String concatenated with operator, appended in place
+     * */
+    private static final class CombinedMessage {
+
+        private final StringBuilder builder;
+
+        private CombinedMessage(String first) {
+            this.builder = new StringBuilder(first);
+        }
+
+        private CombinedMessage append(String operator, String message) {
+            builder.append(' ').append(operator).append(' ').append(message);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
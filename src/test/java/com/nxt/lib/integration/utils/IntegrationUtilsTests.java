@@ -0,0 +1,32 @@
+package com.nxt.lib.integration.utils;
+
+import com.nxt.lib.integration.IntegrationException;
+import com.nxt.lib.integration.IntegrationRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntegrationUtilsTests {
+
+    @Test
+    void expressionMayAssign() {
+        Map<String, Object> context = new HashMap<>(Map.of("code", "A"));
+        assertEquals("B", IntegrationUtils.extractValue("['code'] = 'B'", context, String.class));
+        assertEquals("B", context.get("code"));
+        assertEquals(2, IntegrationUtils.extractValue("#count = 2", context, Integer.class));
+    }
+
+    @Test
+    void missingValueRejectedWithoutTrace() {
+        IntegrationException exception = assertThrows(IntegrationRejectedException.class,
+                () -> IntegrationUtils.extractValue("['missing']", Map.of(), String.class));
+        assertEquals(0, exception.getStackTrace().length);
+        IntegrationException invalid = assertThrows(IntegrationException.class,
+                () -> IntegrationUtils.extractValue("['code' ==", Map.of(), String.class));
+        assertFalse(invalid instanceof IntegrationRejectedException);
+        assertTrue(invalid.getStackTrace().length > 0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.nxt.lib.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassUtilsTests {
+
+    @Test
+    void contentComparedByFieldsNotEquals() {
+        Node a = new Node(1, "a", List.of(new Node(2, "b", List.of())));
+        Node b = new Node(1, "a", List.of(new Node(2, "b", List.of())));
+        Node c = new Node(1, "a", List.of(new Node(2, "c", List.of())));
+        assertEquals(a, c);
+        assertTrue(ClassUtils.contentEquals(a, b));
+        assertEquals(ClassUtils.contentHashCode(a), ClassUtils.contentHashCode(b));
+        assertFalse(ClassUtils.contentEquals(a, c));
+        assertFalse(ClassUtils.contentEquals(Map.of("k", a), Map.of("k", c)));
+        assertTrue(ClassUtils.contentEquals(new int[] {1, 2}, new int[] {1, 2}));
+    }
+
+    @Test
+    void cyclicContent() {
+        Node a = new Node(1, "a", new ArrayList<>());
+        Node b = new Node(1, "a", new ArrayList<>());
+        a.children.add(a);
+        b.children.add(b);
+        assertEquals(ClassUtils.contentHashCode(a), ClassUtils.contentHashCode(b));
+        assertTrue(ClassUtils.contentEquals(a, b));
+    }
+
+    /**
+     * Node equal by id only
+     * */
+    static final class Node {
+
+        private final int id;
+
+        private final String name;
+
+        private final List<Node> children;
+
+        Node(int id, String name, List<Node> children) {
+            this.id = id;
+            this.name = name;
+            this.children = children;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Node other && id == other.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
+}
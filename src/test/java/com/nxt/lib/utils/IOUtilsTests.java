@@ -0,0 +1,57 @@
+package com.nxt.lib.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.nxt.lib.validation.core.RuleConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IOUtilsTests {
+
+    private static final String RULE = "rules/probe_item.json";
+
+    @AfterEach
+    void tearDown() {
+        IOUtils.clearResourceCache();
+    }
+
+    @Test
+    void cachedResourceIsBoundPerCall() {
+        RuleConfiguration first = IOUtils.getResource(RULE, RuleConfiguration.class).orElseThrow();
+        first.getSubRules().get(0).setRuleExpression("a == null");
+        first.setSubRules(List.of());
+        RuleConfiguration second = IOUtils.getResource(RULE, RuleConfiguration.class).orElseThrow();
+        assertNotSame(first, second);
+        assertEquals(1, second.getSubRules().size());
+        assertEquals("a != null", second.getSubRules().get(0).getRuleExpression());
+    }
+
+    @Test
+    void sameResourceBoundToAnyType() {
+        Map<String, Object> tree = IOUtils.getResource(RULE, new TypeReference<Map<String, Object>>() {}).orElseThrow();
+        assertEquals("AND", tree.get("groupType"));
+        tree.clear();
+        assertEquals(RuleConfiguration.RuleGroupType.AND, IOUtils.getResource(RULE, RuleConfiguration.class).orElseThrow().getGroupType());
+        assertTrue(IOUtils.getResource("rules/missing_rule.json", RuleConfiguration.class).isEmpty());
+    }
+
+    @Test
+    void locationStringOnlyReadsClassPath(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("flow.json"), "{\"name\": \"flow\"}");
+        assertTrue(IOUtils.getResource("file:" + file, Map.class).isEmpty());
+        assertTrue(IOUtils.getResource("classpath:" + RULE, RuleConfiguration.class).isPresent());
+
+        assertEquals(Map.of("name", "flow"), IOUtils.getResource(IOUtils.getSource("file").orElseThrow(), file.toString(), Map.class).orElseThrow());
+        assertTrue(IOUtils.getSource("mmap").isEmpty());
+        assertEquals(Map.of("name", "flow"), IOUtils.getFile(file, Map.class).orElseThrow());
+        assertTrue(IOUtils.getSource("unknown").isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package com.nxt.lib.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTests {
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        assertEquals(1, cache.getIfPresent("a"));
+        cache.put("d", 4);
+        assertEquals(Set.of("a", "c", "d"), cache.asMap().keySet());
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    void replaceKeepSize() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("a", 2);
+        cache.put("b", 3);
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getIfPresent("a"));
+        assertEquals(0, cache.stats().evictionCount());
+    }
+
+    @Test
+    void loadOnMissOnly() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        List<String> loaded = new ArrayList<>();
+        cache.get("a", key -> { loaded.add(key); return 1; });
+        cache.get("a", key -> { loaded.add(key); return 2; });
+        assertEquals(List.of("a"), loaded);
+        LruCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        assertThrows(IllegalStateException.class, () -> cache.get("a", key -> { throw new IllegalStateException(); }));
+        assertFalse(cache.containsKey("a"));
+        assertEquals(1, cache.get("a", key -> 1));
+    }
+
+    @Test
+    void invalidate() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.invalidate("a");
+        cache.put("c", 3);
+        assertEquals(Set.of("b", "c"), cache.asMap().keySet());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        cache.put("d", 4);
+        cache.put("e", 5);
+        cache.put("f", 6);
+        assertEquals(Set.of("e", "f"), cache.asMap().keySet());
+    }
+
+    @Test
+    void boundedUnderConcurrentLoad() throws Exception {
+        LruCache<Integer, Integer> cache = new LruCache<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int key = (i * 31 + seed) % 500;
+                        if (i % 7 == 0) cache.invalidate(key);
+                        else assertEquals(key, cache.get(key, k -> k));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.size() <= 64);
+        cache.put(-1, -1);
+        assertTrue(cache.size() <= 64);
+    }
+}
@@ -0,0 +1,110 @@
+package com.nxt.lib.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpElUtilsTests {
+
+    private static final int ITERATIONS = 150;
+
+    @AfterEach
+    void tearDown() {
+        SpElUtils.clearCache();
+    }
+
+    @ParameterizedTest
+    @EnumSource(SpelCompilerMode.class)
+    void mapKeyReadInEveryMode(SpelCompilerMode mode) {
+        Holder holder = new Holder(new HashMap<>(Map.of("code", "A1")), List.of("a", "b"));
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals("A1", SpElUtils.getValue("attributes.code", holder, mode).orElse(null));
+            assertEquals(2, SpElUtils.getValue("names.size()", holder, Integer.class, mode).orElse(null));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SpelCompilerMode.class)
+    void writingExpressionDetected(SpelCompilerMode mode) {
+        assertTrue(SpElUtils.isWriting(SpElUtils.parse("#count = 1", mode).orElseThrow()));
+        assertTrue(SpElUtils.isWriting(SpElUtils.parse("attributes.code = 'B'", mode).orElseThrow()));
+        assertTrue(SpElUtils.isWriting(SpElUtils.parse("attributes['code'] = 'B'", mode).orElseThrow()));
+        assertTrue(SpElUtils.isWriting(SpElUtils.parse("size++", mode).orElseThrow()));
+        assertFalse(SpElUtils.isWriting(SpElUtils.parse("attributes.code == 'B'", mode).orElseThrow()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SpelCompilerMode.class)
+    void writableContextAssigns(SpelCompilerMode mode) {
+        Holder holder = new Holder(new HashMap<>(Map.of("code", "A1")), List.of());
+        SpElExpression assignVariable = SpElUtils.parse("#count = 1", mode).orElseThrow();
+        assertEquals(1, assignVariable.getValueOrNull(SpElUtils.createEvaluationContext(mode), holder, Integer.class));
+        assertNull(assignVariable.getValueOrNull(holder, Integer.class));
+        SpElExpression assignKey = SpElUtils.parse("attributes['code'] = 'B'", mode).orElseThrow();
+        assertEquals("B", assignKey.getValueOrNull(SpElUtils.createEvaluationContext(mode), holder, String.class));
+        assertEquals("B", holder.getAttributes().get("code"));
+        SpElExpression assignProperty = SpElUtils.parse("attributes.code = 'C'", mode).orElseThrow();
+        assertEquals("C", assignProperty.getValueOrNull(SpElUtils.createEvaluationContext(mode), holder, String.class));
+        assertEquals("C", holder.getAttributes().get("code"));
+        assertNull(SpElUtils.createEvaluationContext(mode).lookupVariable("count"));
+    }
+
+    @Test
+    void sharedContextIsReadOnly() {
+        Holder holder = new Holder(new HashMap<>(Map.of("code", "A1")), List.of());
+        SpelExpressionParser parser = new SpelExpressionParser();
+        for (SpelCompilerMode mode : SpelCompilerMode.values()) {
+            assertThrows(SpelEvaluationException.class, () -> parser.parseRaw("#count = 1").getValue(SpElUtils.getEvaluationContext(mode), holder));
+            assertThrows(SpelEvaluationException.class, () -> parser.parseRaw("attributes.code = 'B'").getValue(SpElUtils.getEvaluationContext(mode), holder));
+            assertNull(SpElUtils.getEvaluationContext(mode).lookupVariable("count"));
+        }
+        assertEquals("A1", holder.getAttributes().get("code"));
+    }
+
+    @Test
+    void getterValueIsTyped() throws AccessException {
+        Holder holder = new Holder(Map.of(), List.of("a"));
+        TypeDescriptor type = new GetterPropertyAccessor().read(SpElUtils.getEvaluationContext(), holder, "names").getTypeDescriptor();
+        assertNotNull(type);
+        assertTrue(type.isCollection());
+        assertEquals(String.class, type.getElementTypeDescriptor().getType());
+        assertEquals(TypeDescriptor.valueOf(String.class), new GetterPropertyAccessor()
+                .read(SpElUtils.getEvaluationContext(), holder, "first").getTypeDescriptor());
+    }
+
+    public static class Holder {
+
+        private final Map<String, String> attributes;
+
+        private final List<String> names;
+
+        Holder(Map<String, String> attributes, List<String> names) {
+            this.attributes = attributes;
+            this.names = names;
+        }
+
+        public Map<String, String> getAttributes() {
+            return attributes;
+        }
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public String getFirst() {
+            return names.isEmpty() ? null : names.get(0);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.nxt.lib.validation;
+
+import com.nxt.lib.utils.SpElUtils;
+import com.nxt.lib.validation.core.RuleRegistry;
+import com.nxt.lib.validation.core.ValidationResult;
+import com.nxt.lib.validation.core.ValidationSettings;
+import com.nxt.lib.validation.demo.model.Organization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.util.List;
+
+import static com.nxt.lib.validation.ValidationCompilerTests.department;
+import static com.nxt.lib.validation.ValidationCompilerTests.employee;
+import static com.nxt.lib.validation.ValidationCompilerTests.organization;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The rule fixtures give the same result whatever the SpEl compiler mode, expressions
+ * are evaluated by SpEl only (no direct access) past the compilation threshold
+ * */
+class CompilerModeTests {
+
+    private static final String ORGANIZATION_RULE = "validation/organization.json";
+
+    private static final int ITERATIONS = 150;
+
+    @BeforeEach
+    void setUp() {
+        ValidationSettings.setDirectAccess(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ValidationSettings.setCompilerMode(SpelCompilerMode.OFF);
+        ValidationSettings.setDirectAccess(true);
+        RuleRegistry.invalidateAll();
+    }
+
+    @ParameterizedTest
+    @EnumSource(SpelCompilerMode.class)
+    void sameResultInEveryMode(SpelCompilerMode mode) {
+        List<Organization> fixtures = List.of(
+                organization("org", null, List.of(department("d", 2, employee("e", 20)))),
+                new Organization(),
+                organization(null, "code", List.of(
+                        department(null, 40, employee(null, 10)),
+                        department("d", 2, employee("e", 20), employee(null, 70)),
+                        department("q", 1, employee(null, 1), employee(null, null)))),
+                organization(null, null, List.of(department(null, 0))));
+
+        ValidationSettings.setCompilerMode(SpelCompilerMode.OFF);
+        RuleRegistry.invalidateAll();
+        List<ValidationResult> expected = fixtures.stream().map(RuleRegistry.getValidator(ORGANIZATION_RULE)::validate).toList();
+
+        ValidationSettings.setCompilerMode(mode);
+        RuleRegistry.invalidateAll();
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<ValidationResult> results = fixtures.stream().map(RuleRegistry.getValidator(ORGANIZATION_RULE)::validate).toList();
+            assertEquals(expected, results, "Iteration " + i);
+        }
+        if (mode != SpelCompilerMode.OFF) {
+            assertTrue(SpElUtils.getCompilationReport().get("age != null && age >= 18 && age <= 60"));
+        }
+    }
+}
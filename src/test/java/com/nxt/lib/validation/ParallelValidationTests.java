@@ -0,0 +1,84 @@
+package com.nxt.lib.validation;
+
+import com.nxt.lib.validation.core.RuleRegistry;
+import com.nxt.lib.validation.core.ValidationMode;
+import com.nxt.lib.validation.core.ValidationResult;
+import com.nxt.lib.validation.core.ValidationSettings;
+import com.nxt.lib.validation.demo.model.Department;
+import com.nxt.lib.validation.demo.model.Organization;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.nxt.lib.validation.ValidationCompilerTests.department;
+import static com.nxt.lib.validation.ValidationCompilerTests.employee;
+import static com.nxt.lib.validation.ValidationCompilerTests.organization;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Parallel array validation report the same violations, in the same element order, as sequential validation
+ * */
+class ParallelValidationTests {
+
+    private static final String ORGANIZATION_RULE = "validation/organization.json";
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void closePool() {
+        pool.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ValidationSettings.setParallelThreshold(0);
+        ValidationSettings.setParallelPool(ForkJoinPool.commonPool());
+        ValidationSettings.setElementMemoSize(0);
+        ValidationSettings.setPropertyMemo(false);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "COLLECT_ALL, 0, false",
+            "COLLECT_ALL, 64, true",
+            "FAIL_FAST, 0, false",
+            "FAIL_FAST, 64, true"})
+    void sameAsSequential(ValidationMode mode, int elementMemoSize, boolean propertyMemo) {
+        Organization organization = largeOrganization();
+        ValidationSettings.setElementMemoSize(elementMemoSize);
+        ValidationSettings.setPropertyMemo(propertyMemo);
+        ValidationResult sequential = RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization, mode);
+
+        ValidationSettings.setParallelPool(pool);
+        ValidationSettings.setParallelThreshold(2);
+        for (int i = 0; i < 20; i++) {
+            ValidationResult parallel = RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization, mode);
+            assertEquals(sequential, parallel);
+            assertEquals(new ArrayList<>(sequential.getMessages().keySet()), new ArrayList<>(parallel.getMessages().keySet()));
+        }
+    }
+
+    private static Organization largeOrganization() {
+        List<Department> departments = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            departments.add(switch (i % 5) {
+                case 0 -> department(null, 2, employee("e", 20));
+                case 1 -> department("d" + i, 2, employee("e", 20), employee(null, 70));
+                case 2 -> department("d" + i, 40, employee("e", 30));
+                default -> department("d" + i, 3, employee("e", 25), employee("f", 26));
+            });
+        }
+        return organization("org", null, departments);
+    }
+}
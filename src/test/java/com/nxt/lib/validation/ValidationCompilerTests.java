@@ -0,0 +1,106 @@
+package com.nxt.lib.validation;
+
+import com.nxt.lib.validation.core.RuleConfiguration;
+import com.nxt.lib.validation.core.RuleRegistry;
+import com.nxt.lib.validation.core.ValidationExecutor;
+import com.nxt.lib.validation.core.ValidationResult;
+import com.nxt.lib.validation.demo.model.Department;
+import com.nxt.lib.validation.demo.model.Employee;
+import com.nxt.lib.validation.demo.model.Organization;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationCompilerTests {
+
+    private static final String ORGANIZATION_RULE = "validation/organization.json";
+
+    @Test
+    void validOrganization() {
+        Organization organization = organization("org", null, List.of(department("d", 2, employee("e", 20))));
+        ValidationResult result = RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization);
+        assertTrue(result.isValid());
+        assertNull(result.getMessages());
+    }
+
+    @Test
+    void emptyOrganization() {
+        ValidationResult result = RuleRegistry.getValidator(ORGANIZATION_RULE).validate(new Organization());
+        assertEquals(Map.of(
+                "taxCode", "taxCode must be not null",
+                "address", "address must be not null",
+                "departments", "departments must be not null and departments size >= 1",
+                "orgName & orgCode", Map.of(
+                        "message", "orgName & orgCode must match at least one of these rule below:",
+                        "orgName", "orgName must be not null",
+                        "orgCode", "orgCode must be not null")
+        ), result.getMessages());
+    }
+
+    @Test
+    void nestedArrayMessages() {
+        Organization organization = organization(null, "code", List.of(
+                department(null, 40, employee(null, 10)),
+                department("d", 2, employee("e", 20), employee(null, 70)),
+                department("q", 1, employee(null, 1), employee(null, null))));
+        organization.setAddress(null);
+        ValidationResult result = RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization);
+        assertEquals(Map.of(
+                "address", "address must be not null",
+                "departments[0].name", "name must be not null",
+                "departments[0].maxSize", "maxSize must be not null and between 1 and 30",
+                "departments[0].employees[0].name", "name must be not null",
+                "departments[0].employees[0].age", "age must be not null and between 18 and 60",
+                "departments[1].employees[1].name", "name must be not null",
+                "departments[1].employees[1].age", "age must be not null and between 18 and 60",
+                "departments[2].employees", "employees must be not null and not empty"
+        ), result.getMessages());
+    }
+
+    @Test
+    void executorMatchesRegistry() {
+        Organization organization = organization(null, null, List.of(department(null, 0)));
+        ValidationResult compiled = RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization);
+        ValidationResult executed = new ValidationExecutor(RuleRegistry.getRule(ORGANIZATION_RULE), organization).validate();
+        assertEquals(compiled, executed);
+    }
+
+    @Test
+    void registryHandOutCopies() {
+        RuleConfiguration configuration = RuleRegistry.getRule(ORGANIZATION_RULE);
+        configuration.getSubRules().clear();
+        assertEquals(4, RuleRegistry.getRule(ORGANIZATION_RULE).getSubRules().size());
+        assertEquals(4, RuleRegistry.getValidator(ORGANIZATION_RULE).validate(new Organization()).getMessages().size());
+    }
+
+    static Organization organization(String name, String code, List<Department> departments) {
+        Organization organization = new Organization();
+        organization.setOrgName(name);
+        organization.setOrgCode(code);
+        organization.setTaxCode("tax");
+        organization.setAddress("address");
+        organization.setDepartments(departments);
+        return organization;
+    }
+
+    static Department department(String name, Integer maxSize, Employee... employees) {
+        Department department = new Department();
+        department.setName(name);
+        department.setMaxSize(maxSize);
+        department.setEmployees(new ArrayList<>(List.of(employees)));
+        return department;
+    }
+
+    static Employee employee(String name, Integer age) {
+        Employee employee = new Employee();
+        employee.setName(name);
+        employee.setAge(age);
+        return employee;
+    }
+}
@@ -0,0 +1,164 @@
+package com.nxt.lib.validation.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchValidatorTests {
+
+    private static final String ROW_RULE = "rules/probe_item.json";
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        ValidationSettings.setParallelPool(ForkJoinPool.commonPool());
+        pool.shutdown();
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void resultsKeepInputOrder() {
+        ValidationSettings.setParallelPool(pool);
+        List<Row> rows = rows(1000, new AtomicInteger());
+        BatchValidationResult result = new BatchValidator(ROW_RULE, 4, 7, false, ValidationMode.COLLECT_ALL).validate(rows);
+        CompiledRule rule = RuleRegistry.getValidator(ROW_RULE);
+        List<ValidationResult> expected = rows.stream().map(rule::validate).toList();
+        Map<Long, ValidationResult> failures = new LinkedHashMap<>();
+        for (int i = 0; i < expected.size(); i++) {
+            if (!expected.get(i).isValid()) failures.put((long) i, expected.get(i));
+        }
+        assertEquals(1000, result.total());
+        assertEquals(failures.size(), result.invalid());
+        assertEquals(expected, result.results());
+        assertEquals(failures, result.failures());
+        assertEquals(new ArrayList<>(failures.keySet()), new ArrayList<>(result.failures().keySet()));
+        assertEquals(expected.get(3), result.failures().get(3L));
+        assertNull(result.failures().get(1L));
+    }
+
+    @Test
+    void failuresOnlyMatchFullResult() {
+        ValidationSettings.setParallelPool(pool);
+        List<Row> rows = rows(500, new AtomicInteger());
+        BatchValidationResult full = new BatchValidator(ROW_RULE, 1, 16, false, ValidationMode.COLLECT_ALL).validate(rows);
+        BatchValidationResult failuresOnly = new BatchValidator(ROW_RULE, 3, 16, true, ValidationMode.COLLECT_ALL).validate(rows.stream());
+        assertTrue(failuresOnly.results().isEmpty());
+        assertEquals(full.failures(), failuresOnly.failures());
+        assertEquals(full.invalid(), failuresOnly.invalid());
+        assertEquals(full.valid(), failuresOnly.valid());
+    }
+
+    @Test
+    void inFlightChunksAreBounded() {
+        ValidationSettings.setParallelPool(pool);
+        int parallelism = 3, chunkSize = 10;
+        AtomicInteger validated = new AtomicInteger();
+        List<Row> rows = rows(2000, validated);
+        AtomicInteger maxPending = new AtomicInteger();
+        Iterator<Row> source = rows.iterator();
+        Iterable<Row> input = () -> new Iterator<>() {
+
+            private int pulled;
+
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Row next() {
+                maxPending.accumulateAndGet(pulled++ - validated.get(), Math::max);
+                return source.next();
+            }
+        };
+        BatchValidationResult result = new BatchValidator(ROW_RULE, parallelism, chunkSize, true, ValidationMode.COLLECT_ALL).validate(input);
+        assertEquals(2000, result.total());
+        assertEquals(2000, validated.get());
+        assertTrue(maxPending.get() <= parallelism * chunkSize, "pending: " + maxPending.get());
+    }
+
+    @Test
+    void failingChunkCancelsChunksInFlight() throws InterruptedException {
+        ValidationSettings.setParallelPool(pool);
+        AtomicInteger validated = new AtomicInteger();
+        List<Row> rows = IntStream.range(0, 400)
+                .mapToObj(i -> i == 25 ? new Failing(validated) : new Slow("a" + i, validated))
+                .toList();
+        BatchValidator validator = new BatchValidator(ROW_RULE, 4, 10, false, ValidationMode.COLLECT_ALL);
+        assertThrows(ValidationException.class, () -> validator.validate(rows));
+        int stopped = validated.get();
+        Thread.sleep(50);
+        assertEquals(stopped, validated.get());
+        assertTrue(stopped < 100, "validated: " + stopped);
+    }
+
+    private static List<Row> rows(int count, AtomicInteger validated) {
+        return IntStream.range(0, count).mapToObj(i -> new Row(i % 3 == 0 ? null : "a" + i, validated)).toList();
+    }
+
+    /**
+     * Row counting the number of validated row
+     * */
+    public static class Row {
+
+        private final String a;
+
+        private final AtomicInteger validated;
+
+        Row(String a, AtomicInteger validated) {
+            this.a = a;
+            this.validated = validated;
+        }
+
+        public String getA() {
+            validated.incrementAndGet();
+            return a;
+        }
+    }
+
+    /**
+     * Row whose read take some time
+     * */
+    public static class Slow extends Row {
+
+        Slow(String a, AtomicInteger validated) {
+            super(a, validated);
+        }
+
+        @Override
+        public String getA() {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getA();
+        }
+    }
+
+    /**
+     * Row failing to be read
+     * */
+    public static class Failing extends Row {
+
+        Failing(AtomicInteger validated) {
+            super(null, validated);
+        }
+
+        @Override
+        public String getA() {
+            throw new IllegalStateException("Row cannot be read");
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.nxt.lib.validation.core;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaValidatorTests {
+
+    private static final String ORDER_RULE = "rules/delta_order.json";
+
+    private final DeltaValidator validator = new DeltaValidator();
+
+    @AfterEach
+    void tearDown() {
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void onlyRulesReadingChangesAreEvaluated() {
+        Order order = valid();
+        order.setName(null);
+        order.setCode("AB");
+        order.resetReads();
+        assertEquals(Map.of("code", "code must have 3 characters"), validate(order, "code"));
+        assertEquals(0, order.reads("name"));
+        assertEquals(0, order.reads("members"));
+        // Method on root may read anything, it is always evaluated
+        assertEquals(1, order.reads("checksum"));
+    }
+
+    @Test
+    void referenceIgnoresChangesUnderProperty() {
+        Order order = valid();
+        order.getOwner().setFirst(null);
+        order.resetReads();
+        assertEquals(Map.of(), validate(order, "owner.first"));
+        assertEquals(0, order.reads("owner"));
+
+        order.setOwner(null);
+        assertEquals(Map.of("owner", "owner must be not null"), validate(order, "owner"));
+    }
+
+    @Test
+    void countIgnoresChangesInsideElements() {
+        Order order = valid();
+        Member first = order.getMembers().get(0);
+        order.getMembers().get(1).setFirst(null);
+        order.resetReads();
+        first.resetReads();
+        assertEquals(Map.of("members[1].first", "first must be not null"), validate(order, "members[1].first"));
+        // Read once by the array, not by the count rule
+        assertEquals(1, order.reads("members"));
+        assertEquals(0, first.reads("first"));
+    }
+
+    @Test
+    void countDependsOnElementsAddedOrReplaced() {
+        Order order = valid();
+        order.getMembers().add(member("c"));
+        order.getMembers().add(member("d"));
+        assertEquals(Map.of("members", "members must have at most 3 elements"), validate(order, "members"));
+        assertEquals(Map.of("members", "members must have at most 3 elements"), validate(order, "members[3]"));
+        assertEquals(Map.of(), validate(order, "members[3].first"));
+    }
+
+    @Test
+    void nestedArrayOnlyValidatesChangedElements() {
+        Order order = valid();
+        Member first = order.getMembers().get(0);
+        Member second = order.getMembers().get(1);
+        second.getParts().get(0).setLabel(null);
+        first.resetReads();
+        second.resetReads();
+        assertEquals(Map.of("members[1].parts[0].label", "label must be not null"), validate(order, "members[1].parts[0].label"));
+        assertEquals(0, first.reads("parts"));
+        assertEquals(0, second.reads("first"));
+    }
+
+    @Test
+    void conditionChangeEvaluatesRule() {
+        Order order = valid();
+        order.setKind("B");
+        assertEquals(Map.of(), validate(order, "name"));
+        assertEquals(Map.of("discount", "discount is required for kind B"), validate(order, "kind"));
+        assertEquals(Map.of("discount", "discount is required for kind B"), validate(order, "discount"));
+        order.setKind("A");
+        assertEquals(Map.of(), validate(order, "discount"));
+    }
+
+    @Test
+    void orGroupEvaluatedAsWhole() {
+        Order order = valid();
+        order.setPhone(null);
+        assertEquals(full(order), validate(order, "email"));
+        assertFalse(validate(order, "email").isEmpty());
+        assertEquals(Map.of(), validate(order, "name"));
+    }
+
+    @Test
+    void fallsBackToFullArrayValidation() {
+        Order order = valid();
+        order.getMembers().get(0).setFirst(null);
+        Map<String, Object> expected = Map.of("members[0].first", "first must be not null");
+        assertEquals(Map.of(), validate(order, "members[1].first"));
+        // Index out of range, index that is not a number, array replaced
+        assertEquals(expected, validate(order, "members[5].first"));
+        assertEquals(expected, validate(order, "members[x].first"));
+        assertEquals(expected, validate(order, "members"));
+    }
+
+    @Test
+    void sameResultAsFullValidationWhenEveryChangeIsListed() {
+        Order order = valid();
+        order.setName(null);
+        order.setKind("B");
+        order.getMembers().get(1).setFirst(null);
+        order.getMembers().get(0).getParts().add(new Part(null));
+        List<String> changes = List.of("name", "kind", "members[1].first", "members[0].parts");
+        assertEquals(full(order), validate(order, changes.toArray(String[]::new)));
+        assertEquals(4, full(order).size());
+    }
+
+    @Test
+    void patchCopiesOnlyThePatchedPath() throws IOException {
+        Order previous = valid();
+        DeltaValidationResult<Order> result = validator.validatePatch(ORDER_RULE, previous, "{\"owner\": {\"first\": \"p\"}, \"code\": \"ABC\"}");
+        assertTrue(result.isValid());
+        assertEquals(Set.of("owner.first"), result.changedPaths());
+        assertEquals("p", result.value().getOwner().getFirst());
+        assertEquals("o", previous.getOwner().getFirst());
+        assertNotSame(previous, result.value());
+        assertNotSame(previous.getOwner(), result.value().getOwner());
+        assertSame(previous.getMembers(), result.value().getMembers());
+    }
+
+    @Test
+    void patchSetsNullAndReplacesArray() throws IOException {
+        Order previous = valid();
+        DeltaValidationResult<Order> result = validator.validatePatch(ORDER_RULE, previous,
+                "{\"name\": null, \"members\": [{\"first\": null, \"parts\": []}]}");
+        assertEquals(Set.of("name", "members"), result.changedPaths());
+        assertEquals(Map.of("name", "name must be not null", "members[0].first", "first must be not null"), result.result().getMessages());
+        assertEquals(full(result.value()), result.result().getMessages());
+        assertEquals("n", previous.getName());
+        assertEquals(2, previous.getMembers().size());
+    }
+
+    @Test
+    void patchCreatesMissingObject() throws IOException {
+        Order previous = valid();
+        previous.setOwner(null);
+        DeltaValidationResult<Order> result = validator.validatePatch(ORDER_RULE, previous, "{\"owner\": {\"first\": \"z\", \"parts\": null}}");
+        assertEquals(Set.of("owner"), result.changedPaths());
+        assertEquals("z", result.value().getOwner().getFirst());
+        assertNull(previous.getOwner());
+    }
+
+    @Test
+    void patchWithoutChangeReturnsPrevious() throws IOException {
+        Order previous = valid();
+        DeltaValidationResult<Order> result = validator.validatePatch(ORDER_RULE, previous, "{\"name\": \"n\", \"owner\": {\"first\": \"o\"}}");
+        assertTrue(result.isValid());
+        assertTrue(result.changedPaths().isEmpty());
+        assertSame(previous, result.value());
+        assertThrows(IOException.class, () -> validator.validatePatch(ORDER_RULE, previous, "[]"));
+    }
+
+    @Test
+    void patchKeepsFieldsNotBoundByJson() throws IOException {
+        Order previous = valid();
+        previous.setRevision("r1");
+        previous.createdBy = "admin";
+        DeltaValidationResult<Order> result = validator.validatePatch(ORDER_RULE, previous, "{\"code\": \"XYZ\"}");
+        assertEquals(Set.of("code"), result.changedPaths());
+        assertEquals("XYZ", result.value().getCode());
+        assertEquals("r1", result.value().getRevision());
+        assertEquals("admin", result.value().getCreatedBy());
+        assertEquals("ABC", previous.getCode());
+    }
+
+    @Test
+    void patchRefusesTreeCopyLosingField() {
+        Label previous = new Label("a", "import");
+        IOException exception = assertThrows(IOException.class, () -> validator.validatePatch(ORDER_RULE, previous, "{\"name\": \"b\"}"));
+        assertTrue(exception.getMessage().contains("source"));
+    }
+
+    private Map<String, Object> validate(Order order, String... changes) {
+        return messages(validator.validate(ORDER_RULE, order, List.of(changes), ValidationMode.COLLECT_ALL));
+    }
+
+    private static Map<String, Object> full(Order order) {
+        return messages(RuleRegistry.getValidator(ORDER_RULE).validate(order, ValidationMode.COLLECT_ALL));
+    }
+
+    /**
+     * @return messages of result, empty if valid
+     * */
+    private static Map<String, Object> messages(ValidationResult result) {
+        return result.isValid() ? Map.of() : result.getMessages();
+    }
+
+    private static Order valid() {
+        Order order = new Order();
+        order.setName("n");
+        order.setOwner(member("o"));
+        order.setMembers(new ArrayList<>(List.of(member("a"), member("b"))));
+        order.setCode("ABC");
+        order.setKind("A");
+        order.setPhone("1");
+        return order;
+    }
+
+    private static Member member(String first) {
+        Member member = new Member();
+        member.setFirst(first);
+        member.setParts(new ArrayList<>(List.of(new Part(first + "-part"))));
+        return member;
+    }
+
+    /**
+     * Model counting how many time each property is read
+     * */
+    public static class Counted {
+
+        private final Map<String, Integer> reads = new HashMap<>();
+
+        int reads(String property) {
+            return reads.getOrDefault(property, 0);
+        }
+
+        void resetReads() {
+            reads.clear();
+        }
+
+        <T> T read(String property, T value) {
+            reads.merge(property, 1, Integer::sum);
+            return value;
+        }
+    }
+
+    public static class Order extends Counted {
+
+        private String name;
+
+        private Member owner;
+
+        private List<Member> members;
+
+        private String code;
+
+        private String kind;
+
+        private Integer discount;
+
+        private String phone;
+
+        private String email;
+
+        @JsonIgnore
+        private String revision;
+
+        private String createdBy;
+
+        public String getName() {
+            return read("name", name);
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Member getOwner() {
+            return read("owner", owner);
+        }
+
+        public void setOwner(Member owner) {
+            this.owner = owner;
+        }
+
+        public List<Member> getMembers() {
+            return read("members", members);
+        }
+
+        public void setMembers(List<Member> members) {
+            this.members = members;
+        }
+
+        public String getCode() {
+            return read("code", code);
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public String getKind() {
+            return read("kind", kind);
+        }
+
+        public void setKind(String kind) {
+            this.kind = kind;
+        }
+
+        public Integer getDiscount() {
+            return read("discount", discount);
+        }
+
+        public void setDiscount(Integer discount) {
+            this.discount = discount;
+        }
+
+        public String getPhone() {
+            return read("phone", phone);
+        }
+
+        public void setPhone(String phone) {
+            this.phone = phone;
+        }
+
+        public String getEmail() {
+            return read("email", email);
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public void setRevision(String revision) {
+            this.revision = revision;
+        }
+
+        public String getCreatedBy() {
+            return createdBy;
+        }
+
+        public int checksum() {
+            return read("checksum", 1);
+        }
+    }
+
+    /**
+     * Immutable model with a field not bound by JSON
+     * */
+    public static final class Label {
+
+        private final String name;
+
+        @JsonIgnore
+        private final String source;
+
+        @JsonCreator
+        Label(@JsonProperty("name") String name) {
+            this(name, null);
+        }
+
+        Label(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class Member extends Counted {
+
+        private String first;
+
+        private List<Part> parts;
+
+        public String getFirst() {
+            return read("first", first);
+        }
+
+        public void setFirst(String first) {
+            this.first = first;
+        }
+
+        public List<Part> getParts() {
+            return read("parts", parts);
+        }
+
+        public void setParts(List<Part> parts) {
+            this.parts = parts;
+        }
+    }
+
+    public static class Part {
+
+        private String label;
+
+        public Part() {}
+
+        Part(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+    }
+}
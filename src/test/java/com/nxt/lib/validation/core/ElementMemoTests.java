@@ -0,0 +1,88 @@
+package com.nxt.lib.validation.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElementMemoTests {
+
+    @BeforeEach
+    void setUp() {
+        ValidationSettings.setElementMemoSize(64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ValidationSettings.setElementMemoSize(0);
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void equalElementsWithDifferentContentAreValidatedEach() {
+        CompiledRule rule = ValidationCompiler.compile(FailFastTests.group(RuleConfiguration.RuleGroupType.AND, FailFastTests.array("items")));
+        Holder holder = new Holder(List.of(new Item(1, "a"), new Item(1, null)));
+        assertEquals(holder.items().get(0), holder.items().get(1));
+        assertEquals(Map.of("items[1].a", "a must be not null"), rule.validate(holder, ValidationMode.COLLECT_ALL).getMessages());
+    }
+
+    @Test
+    void sameElementInstanceReusesResult() {
+        CompiledRule rule = ValidationCompiler.compile(FailFastTests.group(RuleConfiguration.RuleGroupType.AND, FailFastTests.array("items")));
+        FailFastTests.Probe shared = new FailFastTests.Probe(null, null, null);
+        FailFastTests.Probe probe = new FailFastTests.Probe("a", "b", "c", shared, new FailFastTests.Probe("a", null, null), shared);
+        assertEquals(Map.of("items[0].a", "a must be not null", "items[2].a", "a must be not null"),
+                rule.validate(probe, ValidationMode.COLLECT_ALL).getMessages());
+        assertEquals(1, shared.reads("a"));
+    }
+
+    @Test
+    void distinctInstancesWithSameContentReuseResult() {
+        CompiledRule rule = ValidationCompiler.compile(FailFastTests.group(RuleConfiguration.RuleGroupType.AND, FailFastTests.array("items")));
+        Holder holder = new Holder(List.of(new Item(1, null), new Item(2, "a"), new Item(1, null), new Item(2, "a")));
+        Item.READS.set(0);
+        assertEquals(Map.of("items[0].a", "a must be not null", "items[2].a", "a must be not null"),
+                rule.validate(holder, ValidationMode.COLLECT_ALL).getMessages());
+        assertEquals(2, Item.READS.get());
+    }
+
+    public record Holder(List<Item> items) {}
+
+    /**
+     * Element equal by id only
+     * */
+    public static final class Item {
+
+        private static final AtomicInteger READS = new AtomicInteger();
+
+        private final int id;
+
+        private final String a;
+
+        Item(int id, String a) {
+            this.id = id;
+            this.a = a;
+        }
+
+        public String getA() {
+            READS.incrementAndGet();
+            return a;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Item other && id == other.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.nxt.lib.validation.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FailFastTests {
+
+    private static final String ITEM_RULE = "rules/probe_item.json";
+
+    @AfterEach
+    void tearDown() {
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void andStopsAtFirstFailure() {
+        CompiledRule rule = ValidationCompiler.compile(group(RuleConfiguration.RuleGroupType.AND,
+                basic("a"), basic("b"), basic("c")));
+        Probe probe = new Probe(null, null, null);
+        assertEquals(Map.of("a", "a must be not null"), rule.validate(probe, ValidationMode.FAIL_FAST).getMessages());
+        assertEquals(0, probe.reads("b"));
+        assertEquals(0, probe.reads("c"));
+        assertEquals(3, rule.validate(new Probe(null, null, null), ValidationMode.COLLECT_ALL).getMessages().size());
+    }
+
+    @Test
+    void arrayStopsAtFirstInvalidElement() {
+        CompiledRule rule = ValidationCompiler.compile(group(RuleConfiguration.RuleGroupType.AND, array("items")));
+        Probe last = new Probe(null, null, null);
+        Probe probe = new Probe("a", "b", "c", new Probe("a", null, null), new Probe(null, null, null), last);
+        assertEquals(Map.of("items[1].a", "a must be not null"), rule.validate(probe, ValidationMode.FAIL_FAST).getMessages());
+        assertEquals(0, last.reads("a"));
+        assertEquals(2, rule.validate(probe, ValidationMode.COLLECT_ALL).getMessages().size());
+    }
+
+    @Test
+    void orStopsAtFirstValidSubRule() {
+        CompiledRule rule = ValidationCompiler.compile(group(RuleConfiguration.RuleGroupType.OR, basic("a"), basic("b")));
+        Probe valid = new Probe("a", null, null);
+        assertTrue(rule.validate(valid, ValidationMode.FAIL_FAST).isValid());
+        assertEquals(0, valid.reads("b"));
+        Probe invalid = new Probe(null, null, null);
+        assertFalse(rule.validate(invalid, ValidationMode.FAIL_FAST).isValid());
+        assertEquals(1, invalid.reads("a"));
+        assertEquals(1, invalid.reads("b"));
+    }
+
+    @Test
+    void failedOrStopsEnclosingAnd() {
+        CompiledRule rule = ValidationCompiler.compile(group(RuleConfiguration.RuleGroupType.AND,
+                group(RuleConfiguration.RuleGroupType.OR, basic("a"), basic("b")), basic("c")));
+        Probe probe = new Probe(null, null, null);
+        Map<String, Object> messages = rule.validate(probe, ValidationMode.FAIL_FAST).getMessages();
+        assertEquals(1, messages.size());
+        assertFalse(messages.containsKey("c"));
+        assertEquals(0, probe.reads("c"));
+    }
+
+    @Test
+    void invalidSyntaxRejectedAtCompileTime() {
+        RuleConfiguration broken = basic("b");
+        broken.setRuleExpression("b !=!= null");
+        RuleConfiguration configuration = group(RuleConfiguration.RuleGroupType.OR, basic("a"), broken);
+        ValidationException exception = assertThrows(ValidationException.class, () -> ValidationCompiler.compile(configuration));
+        assertEquals(Map.of("b", String.format(ValidationUtils.INVALID_EXPRESSION_SYNTAX_PATTERN, "b !=!= null")), exception.getMessages());
+
+        RuleConfiguration conditional = basic("a");
+        conditional.setCondition("a ==");
+        assertThrows(ValidationException.class, () -> ValidationCompiler.compile(conditional));
+
+        RuleConfiguration writing = basic("a");
+        writing.setRuleExpression("(a = 'x') != null");
+        assertThrows(ValidationException.class, () -> ValidationCompiler.compile(writing));
+    }
+
+    static RuleConfiguration basic(String target) {
+        RuleConfiguration configuration = new RuleConfiguration();
+        configuration.setTarget(target);
+        configuration.setMessage(target + " must be not null");
+        configuration.setRuleExpression(target + " != null");
+        return configuration;
+    }
+
+    static RuleConfiguration array(String target) {
+        RuleConfiguration configuration = new RuleConfiguration();
+        configuration.setTarget(target);
+        configuration.setArrayElementConfig(ITEM_RULE);
+        return configuration;
+    }
+
+    static RuleConfiguration group(RuleConfiguration.RuleGroupType type, RuleConfiguration... subRules) {
+        RuleConfiguration configuration = new RuleConfiguration();
+        configuration.setTarget(Arrays.stream(subRules).map(RuleConfiguration::getTarget).reduce((a, b) -> a + " & " + b).orElse(""));
+        configuration.setMessage(configuration.getTarget() + " must match at least one of these rule below:");
+        configuration.setGroupType(type);
+        configuration.setSubRules(Arrays.asList(subRules));
+        return configuration;
+    }
+
+    /**
+     * Model counting how many time each property is read
+     * */
+    public static class Probe {
+
+        private final Map<String, Integer> reads = new HashMap<>();
+
+        private final String a;
+
+        private final String b;
+
+        private final String c;
+
+        private final List<Probe> items;
+
+        Probe(String a, String b, String c, Probe... items) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.items = List.of(items);
+        }
+
+        public String getA() {
+            return read("a", a);
+        }
+
+        public String getB() {
+            return read("b", b);
+        }
+
+        public String getC() {
+            return read("c", c);
+        }
+
+        public List<Probe> getItems() {
+            return read("items", items);
+        }
+
+        int reads(String property) {
+            return reads.getOrDefault(property, 0);
+        }
+
+        private <T> T read(String property, T value) {
+            reads.merge(property, 1, Integer::sum);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.validation.demo.model.Department;
+import com.nxt.lib.validation.demo.model.Employee;
+import com.nxt.lib.validation.demo.model.Organization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertyMemoTests {
+
+    private static final String ORGANIZATION_RULE = "validation/organization.json";
+
+    @BeforeEach
+    void setUp() {
+        ValidationSettings.setDirectAccess(false);
+        RuleRegistry.invalidateAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ValidationSettings.setPropertyMemo(false);
+        ValidationSettings.setDirectAccess(true);
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void mapAndBeanPropertiesSameWithMemo() {
+        CompiledRule rule = ValidationCompiler.compile(group(
+                basic("name", "name != null"),
+                conditional(basic("attributes", "attributes.code != null && attributes.code == name"), "attributes.containsKey('code')"),
+                basic("size", "attributes.size() >= 1")));
+        List<Holder> holders = List.of(
+                new Holder("a", Map.of("code", "a")),
+                new Holder("a", Map.of("code", "b")),
+                new Holder(null, new HashMap<>()),
+                new Holder("c", Map.of("other", 1)));
+        List<ValidationResult> expected = holders.stream().map(rule::validate).toList();
+        ValidationSettings.setPropertyMemo(true);
+        assertEquals(expected, holders.stream().map(rule::validate).toList());
+        assertTrue(expected.get(0).isValid());
+        assertEquals(2, expected.get(2).getMessages().size());
+        assertEquals(Map.of("attributes", "attributes is invalid"), expected.get(1).getMessages());
+    }
+
+    @Test
+    void organizationSameWithMemo() {
+        Organization organization = new Organization();
+        organization.setOrgCode("code");
+        Department department = new Department();
+        department.setMaxSize(40);
+        Employee employee = new Employee();
+        employee.setAge(70);
+        department.setEmployees(new ArrayList<>(List.of(employee)));
+        organization.setDepartments(List.of(department));
+        ValidationResult expected = RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization);
+        ValidationSettings.setPropertyMemo(true);
+        RuleRegistry.invalidateAll();
+        assertEquals(expected, RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization));
+    }
+
+    @Test
+    void directAccessReadsThroughMemo() {
+        ValidationSettings.setDirectAccess(true);
+        CountingOrganization organization = new CountingOrganization();
+        organization.setOrgCode("code");
+        Department department = new Department();
+        department.setMaxSize(40);
+        department.setEmployees(new ArrayList<>());
+        organization.setDepartments(List.of(department));
+        CompiledRule rule = RuleRegistry.getValidator(ORGANIZATION_RULE);
+        ValidationResult expected = rule.validate(organization);
+        assertTrue(organization.reads > 1);
+
+        ValidationSettings.setPropertyMemo(true);
+        organization.reads = 0;
+        assertEquals(expected, rule.validate(organization));
+        assertEquals(1, organization.reads);
+    }
+
+    static RuleConfiguration basic(String target, String expression) {
+        RuleConfiguration configuration = new RuleConfiguration();
+        configuration.setTarget(target);
+        configuration.setMessage(target + " is invalid");
+        configuration.setRuleExpression(expression);
+        return configuration;
+    }
+
+    static RuleConfiguration conditional(RuleConfiguration configuration, String condition) {
+        configuration.setCondition(condition);
+        return configuration;
+    }
+
+    static RuleConfiguration group(RuleConfiguration... subRules) {
+        RuleConfiguration configuration = new RuleConfiguration();
+        configuration.setGroupType(RuleConfiguration.RuleGroupType.AND);
+        configuration.setSubRules(Arrays.asList(subRules));
+        return configuration;
+    }
+
+    /**
+     * Organization counting the reads of its departments
+     * */
+    public static class CountingOrganization extends Organization {
+
+        private int reads;
+
+        @Override
+        public List<Department> getDepartments() {
+            reads++;
+            return super.getDepartments();
+        }
+    }
+
+    /**
+     * Model with a map property
+     * */
+    public static class Holder {
+
+        private final String name;
+
+        private final Map<String, Object> attributes;
+
+        Holder(String name, Map<String, Object> attributes) {
+            this.name = name;
+            this.attributes = attributes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+}
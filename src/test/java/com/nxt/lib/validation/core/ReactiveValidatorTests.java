@@ -0,0 +1,90 @@
+package com.nxt.lib.validation.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveValidatorTests {
+
+    private static final String ITEM_RULE = "rules/probe_item.json";
+
+    @AfterEach
+    void tearDown() {
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void validMonoEmitsValue() {
+        Slow value = new Slow("a", 0);
+        assertSame(value, ReactiveValidator.validate(ITEM_RULE, Mono.just(value)).block());
+        assertNull(ReactiveValidator.validate(ITEM_RULE, Mono.<Slow>empty()).block());
+    }
+
+    @Test
+    void invalidMonoSignalsValidationException() {
+        Mono<Slow> mono = ReactiveValidator.validate(ITEM_RULE, Mono.just(new Slow(null, 0)));
+        ValidationException exception = assertThrows(ValidationException.class, mono::block);
+        assertEquals(Map.of("a", "a must be not null"), exception.getMessages());
+    }
+
+    @Test
+    void fluxKeepsInputOrder() {
+        List<Slow> elements = IntStream.range(0, 40).mapToObj(i -> new Slow("a" + i, (i * 7) % 5)).toList();
+        assertEquals(elements, ReactiveValidator.validate(ITEM_RULE, Flux.fromIterable(elements), 8).collectList().block());
+    }
+
+    @Test
+    void fluxEmitsValidElementsBeforeTheError() {
+        // The invalid element finish first, the error must still come after the elements before it
+        List<Slow> elements = List.of(new Slow("a", 200), new Slow("b", 100), new Slow(null, 0), new Slow("d", 0));
+        List<Slow> emitted = new ArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        ReactiveValidator.validate(ITEM_RULE, Flux.fromIterable(elements), 4)
+                .doOnNext(emitted::add)
+                .doOnError(error::set)
+                .onErrorResume(e -> Flux.empty())
+                .blockLast();
+        assertEquals(elements.subList(0, 2), emitted);
+        ValidationException exception = assertInstanceOf(ValidationException.class, error.get());
+        assertEquals(Map.of("[2].a", "a must be not null"), exception.getMessages());
+    }
+
+    @Test
+    void ruleFailureSignaledInOrder() {
+        Flux<Slow> flux = ReactiveValidator.validate("rules/missing_rule.json", Flux.just(new Slow("a", 0)));
+        assertThrows(RuntimeException.class, flux::blockLast);
+    }
+
+    /**
+     * Model whose property read take some time
+     * */
+    public static final class Slow {
+
+        private final String a;
+
+        private final long delay;
+
+        Slow(String a, long delay) {
+            this.a = a;
+            this.delay = delay;
+        }
+
+        public String getA() {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return a;
+        }
+    }
+}
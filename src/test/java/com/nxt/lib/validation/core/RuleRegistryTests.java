@@ -0,0 +1,96 @@
+package com.nxt.lib.validation.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleRegistryTests {
+
+    private static final String ITEM_RULE = "item.json";
+
+    private static final String PARENT_RULE = "parent.json";
+
+    private static final String ITEM = """
+            {"groupType": "AND", "subRules": [{"target": "a", "message": "a must be not null", "ruleExpression": "%s"}]}
+            """;
+
+    private static final String PARENT = """
+            {"groupType": "AND", "subRules": [{"target": "items", "arrayElementConfig": "item.json"}]}
+            """;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(directory.resolve(ITEM_RULE), ITEM.formatted("a != null"));
+        Files.writeString(directory.resolve(PARENT_RULE), PARENT);
+        ValidationSettings.setRuleDirectory(directory);
+        RuleRegistry.invalidateAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ValidationSettings.setRuleDirectory(null);
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void reloadSwapRuleAndDependents() throws IOException {
+        CompiledRule item = RuleRegistry.getValidator(ITEM_RULE);
+        CompiledRule parent = RuleRegistry.getValidator(PARENT_RULE);
+        int generation = RuleRegistry.getGeneration();
+        Files.writeString(directory.resolve(ITEM_RULE), ITEM.formatted("a == null"));
+        assertTrue(RuleRegistry.reload(ITEM_RULE));
+        assertNotEquals(generation, RuleRegistry.getGeneration());
+        assertNotSame(item, RuleRegistry.getValidator(ITEM_RULE));
+        assertNotSame(parent, RuleRegistry.getValidator(PARENT_RULE));
+    }
+
+    @Test
+    void reloadBumpGenerationWhenDependentFail() throws IOException {
+        CompiledRule item = RuleRegistry.getValidator(ITEM_RULE);
+        RuleRegistry.getValidator(PARENT_RULE);
+        int generation = RuleRegistry.getGeneration();
+        Files.writeString(directory.resolve(ITEM_RULE), ITEM.formatted("a == null"));
+        Files.writeString(directory.resolve(PARENT_RULE), "{");
+        assertThrows(ValidationException.class, () -> RuleRegistry.reload(ITEM_RULE));
+        assertNotEquals(generation, RuleRegistry.getGeneration());
+        assertNotSame(item, RuleRegistry.getValidator(ITEM_RULE));
+    }
+
+    @Test
+    void reloadRejectCycleThroughLoadedRule() throws IOException {
+        CompiledRule item = RuleRegistry.getValidator(ITEM_RULE);
+        CompiledRule parent = RuleRegistry.getValidator(PARENT_RULE);
+        // The item rule now link its parent, which is already loaded and link the item rule
+        Files.writeString(directory.resolve(ITEM_RULE), PARENT.replace(ITEM_RULE, PARENT_RULE));
+        ValidationException exception = assertThrows(ValidationException.class, () -> RuleRegistry.reload(ITEM_RULE));
+        assertEquals("Cyclic rule reference: item.json -> parent.json -> item.json!",
+                exception.getMessages().get(ValidationUtils.RULE_KEY));
+        assertTrue(exception.getStackTrace().length > 0);
+        assertSame(item, RuleRegistry.getValidator(ITEM_RULE));
+        assertSame(parent, RuleRegistry.getValidator(PARENT_RULE));
+
+        // Fixing the file restore the reload of the rule and its dependents
+        Files.writeString(directory.resolve(ITEM_RULE), ITEM.formatted("a == null"));
+        assertTrue(RuleRegistry.reload(ITEM_RULE));
+        assertNotSame(parent, RuleRegistry.getValidator(PARENT_RULE));
+        RuleRegistry.invalidate(ITEM_RULE);
+        assertNotSame(item, RuleRegistry.getValidator(ITEM_RULE));
+    }
+
+    @Test
+    void reloadUnknownRule() {
+        int generation = RuleRegistry.getGeneration();
+        assertFalse(RuleRegistry.reload(ITEM_RULE));
+        assertEquals(generation, RuleRegistry.getGeneration());
+    }
+}
@@ -0,0 +1,77 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.utils.SpElExpression;
+import com.nxt.lib.utils.SpElUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleExpressionTests {
+
+    private static final List<Sample> SAMPLES = List.of(
+            new Sample(null, null, null, null, null, null, null, null),
+            new Sample("abc", 5, 10L, 1.5, new BigDecimal("2"), (short) 3, List.of(1, 2), Map.of()),
+            new Sample("ABC1", -1, Long.MAX_VALUE, Double.NaN, BigDecimal.ZERO, (short) 0, List.of(), Map.of("a", 1)),
+            new Sample("", Integer.MAX_VALUE, 5L, 5.0, new BigDecimal("5.5"), (short) -3, List.of(1, 2, 3, 4, 5, 6), Map.of("a", 1, "b", 2)));
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "text != null", "text == null", "integer == 5", "integer != 5", "integer > 4", "integer >= 5",
+            "integer < 0", "integer <= 0", "lng > 9", "lng == 5", "lng >= integer", "dbl > 1", "dbl == 5",
+            "decimal > 1", "shortValue == 3", "shortValue < integer", "list.size() >= 2", "list.size() == integer",
+            "map.size() == 0", "map.size() < list.size()", "text matches '[a-z]+'", "text matches '.*'",
+            "integer matches '[0-9]+'", "text != null && integer > 3", "text == null || lng > 6",
+            "list != null && list.size() >= 1 && list.size() <= integer", "missing == null"})
+    void sameResultAsSpEl(String expression) {
+        SpElExpression parsed = SpElUtils.parse(expression, SpelCompilerMode.OFF).orElseThrow();
+        SimpleExpression simple = SimpleExpression.recognize(parsed);
+        assertNotNull(simple, expression);
+        for (Sample sample : SAMPLES) {
+            int result = simple.test(sample);
+            if (result == SimpleExpression.UNKNOWN) continue;
+            assertEquals(result == SimpleExpression.TRUE, parsed.getValueOrNull(sample, Boolean.class), expression + " on " + sample);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"text matches 'a'", "list.size() > 0", "decimal > 1", "integer matches '[0-9]+'", "dbl > decimal"})
+    void unknownWhenSpElFailsOrConverts(String expression) {
+        SpElExpression parsed = SpElUtils.parse(expression, SpelCompilerMode.OFF).orElseThrow();
+        SimpleExpression simple = SimpleExpression.recognize(parsed);
+        Sample sample = expression.startsWith("text") || expression.startsWith("list") ? SAMPLES.get(0) : SAMPLES.get(1);
+        assertEquals(SimpleExpression.UNKNOWN, simple.test(sample));
+    }
+
+    @Test
+    void catastrophicBacktrackingLeftToSpEl() {
+        SpElExpression parsed = SpElUtils.parse("text matches '(.*a){20}'", SpelCompilerMode.OFF).orElseThrow();
+        Sample sample = new Sample("a".repeat(40) + "!", null, null, null, null, null, null, null);
+        assertEquals(SimpleExpression.UNKNOWN, SimpleExpression.recognize(parsed).test(sample));
+        assertNull(parsed.getValueOrNull(sample, Boolean.class));
+    }
+
+    @Test
+    void longRegexLeftToSpEl() {
+        String regex = "a".repeat(SimpleExpression.MAX_REGEX_LENGTH + 1);
+        SpElExpression parsed = SpElUtils.parse("text matches '" + regex + "'", SpelCompilerMode.OFF).orElseThrow();
+        assertNull(SimpleExpression.recognize(parsed));
+        assertNull(parsed.getValueOrNull(new Sample(regex, null, null, null, null, null, null, null), Boolean.class));
+        String accepted = "a".repeat(SimpleExpression.MAX_REGEX_LENGTH);
+        assertNotNull(SimpleExpression.recognize(SpElUtils.parse("text matches '" + accepted + "'", SpelCompilerMode.OFF).orElseThrow()));
+    }
+
+    public record Sample(String text, Integer integer, Long lng, Double dbl, BigDecimal decimal, Short shortValue,
+                         List<Integer> list, Map<String, Integer> map) {
+
+        public Object getMissing() {
+            return null;
+        }
+    }
+}
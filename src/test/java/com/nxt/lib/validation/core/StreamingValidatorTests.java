@@ -0,0 +1,124 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.utils.IOUtils;
+import com.nxt.lib.validation.demo.model.Department;
+import com.nxt.lib.validation.demo.model.Employee;
+import com.nxt.lib.validation.demo.model.Organization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingValidatorTests {
+
+    private static final String ORGANIZATION_RULE = "validation/organization.json";
+
+    private static final String DEPARTMENT_RULE = "validation/department.json";
+
+    private static final String UNCONDITIONAL_RULE = "rules/streamed_organization.json";
+
+    private static final String INDEXED_RULE = "rules/streamed_indexed.json";
+
+    private final StreamingValidator validator = new StreamingValidator();
+
+    @AfterEach
+    void tearDown() {
+        ValidationSettings.setValidationMode(ValidationMode.COLLECT_ALL);
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void sameResultAsBoundPayload() throws IOException {
+        Organization organization = organization(List.of(
+                department(null, 40, employee(null, 10)),
+                department("d", 2, employee("e", 20)),
+                department("q", 1, employee(null, 1), employee(null, null))));
+        StreamingValidationResult result = stream(ORGANIZATION_RULE, Organization.class, organization, 0);
+        assertFalse(result.aborted());
+        assertEquals(3, result.elementCount());
+        assertEquals(RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization), result.result());
+    }
+
+    @Test
+    void falseConditionDropElementErrors() throws IOException {
+        Department department = department("d", 1, employee(null, 1), employee(null, null));
+        StreamingValidationResult result = stream(DEPARTMENT_RULE, Department.class, department, 0);
+        assertEquals(Map.of("employees", "employees must be not null and not empty"), result.result().getMessages());
+        assertEquals(RuleRegistry.getValidator(DEPARTMENT_RULE).validate(department), result.result());
+    }
+
+    @Test
+    void errorLimitAbortUnconditionalArray() throws IOException {
+        Organization organization = organization(List.of(department(null, 1), department(null, 1), department(null, 1)));
+        StreamingValidationResult result = stream(UNCONDITIONAL_RULE, Organization.class, organization, 1);
+        assertTrue(result.aborted());
+        assertEquals(1, result.elementCount());
+        assertTrue(result.result().getMessages().keySet().stream().allMatch(key -> key.startsWith("departments[0].")));
+    }
+
+    @Test
+    void errorLimitDoesNotAbortConditionalArray() throws IOException {
+        Organization organization = organization(List.of(department(null, 1), department(null, 1), department(null, 1)));
+        StreamingValidationResult result = stream(ORGANIZATION_RULE, Organization.class, organization, 1);
+        assertFalse(result.aborted());
+        assertEquals(3, result.elementCount());
+        assertEquals(RuleRegistry.getValidator(ORGANIZATION_RULE).validate(organization), result.result());
+    }
+
+    @Test
+    void failFastStopAtFirstInvalidElement() throws IOException {
+        ValidationSettings.setValidationMode(ValidationMode.FAIL_FAST);
+        Organization organization = organization(List.of(
+                department("d", 2, employee("e", 20)),
+                department(null, 40),
+                department(null, 1)));
+        StreamingValidationResult result = stream(UNCONDITIONAL_RULE, Organization.class, organization, 0);
+        assertEquals(3, result.elementCount());
+        assertEquals(Map.of("departments[1].name", "name must be not null"), result.result().getMessages());
+        assertEquals(RuleRegistry.getValidator(UNCONDITIONAL_RULE).validate(organization, ValidationMode.FAIL_FAST), result.result());
+    }
+
+    @Test
+    void ruleReadingStreamedElementIsReported() {
+        Organization organization = organization(List.of(department("d", 2, employee("e", 20))));
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> stream(INDEXED_RULE, Organization.class, organization, 0));
+        assertEquals("Rule rules/streamed_indexed.json read an element of streamed array departments, only its nullity and size can be checked!",
+                exception.getMessages().get(ValidationUtils.RULE_KEY));
+    }
+
+    private StreamingValidationResult stream(String rulePath, Class<?> rootType, Object payload, int errorLimit) throws IOException {
+        byte[] json = IOUtils.getObjectMapper().writeValueAsBytes(payload);
+        return validator.validate(rulePath, rootType, new ByteArrayInputStream(json), errorLimit);
+    }
+
+    private static Organization organization(List<Department> departments) {
+        Organization organization = new Organization();
+        organization.setOrgName("org");
+        organization.setTaxCode("tax");
+        organization.setAddress("address");
+        organization.setDepartments(departments);
+        return organization;
+    }
+
+    private static Department department(String name, Integer maxSize, Employee... employees) {
+        Department department = new Department();
+        department.setName(name);
+        department.setMaxSize(maxSize);
+        department.setEmployees(new ArrayList<>(List.of(employees)));
+        return department;
+    }
+
+    private static Employee employee(String name, Integer age) {
+        Employee employee = new Employee();
+        employee.setName(name);
+        employee.setAge(age);
+        return employee;
+    }
+}
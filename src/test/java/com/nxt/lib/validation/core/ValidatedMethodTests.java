@@ -0,0 +1,65 @@
+package com.nxt.lib.validation.core;
+
+import com.nxt.lib.validation.demo.model.Organization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatedMethodTests {
+
+    private static final String ORGANIZATION_RULE = "validation/organization.json";
+
+    private static final String EMPLOYEE_RULE = "validation/employee.json";
+
+    @AfterEach
+    void tearDown() {
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void metadataComputedOnce() throws NoSuchMethodException {
+        Method method = Target.class.getMethod("create", String.class, Organization.class);
+        ValidatedMethod validatedMethod = ValidatedMethod.of(method);
+        assertSame(validatedMethod, ValidatedMethod.of(method));
+        assertArrayEquals(new int[] {1}, validatedMethod.getIndexes());
+        assertArrayEquals(new String[] {ORGANIZATION_RULE}, validatedMethod.getPaths());
+    }
+
+    @Test
+    void bindingReusedWhileGenerationUnchanged() throws NoSuchMethodException {
+        ValidatedMethod validatedMethod = ValidatedMethod.of(Target.class.getMethod("create", String.class, Organization.class));
+        CompiledRule[] rules = validatedMethod.getRules();
+        assertSame(RuleRegistry.getValidator(ORGANIZATION_RULE), rules[0]);
+        assertSame(rules, validatedMethod.getRules());
+    }
+
+    @Test
+    void reboundAfterInvalidate() throws NoSuchMethodException {
+        ValidatedMethod validatedMethod = ValidatedMethod.of(Target.class.getMethod("create", String.class, Organization.class));
+        CompiledRule before = validatedMethod.getRules()[0];
+        RuleRegistry.invalidate(ORGANIZATION_RULE);
+        CompiledRule after = validatedMethod.getRules()[0];
+        assertNotSame(before, after);
+        assertSame(RuleRegistry.getValidator(ORGANIZATION_RULE), after);
+    }
+
+    @Test
+    void reboundAfterElementRuleReload() throws NoSuchMethodException {
+        ValidatedMethod validatedMethod = ValidatedMethod.of(Target.class.getMethod("create", String.class, Organization.class));
+        CompiledRule before = validatedMethod.getRules()[0];
+        assertTrue(RuleRegistry.reload(EMPLOYEE_RULE));
+        CompiledRule after = validatedMethod.getRules()[0];
+        assertNotSame(before, after);
+        assertSame(RuleRegistry.getValidator(ORGANIZATION_RULE), after);
+    }
+
+    static class Target {
+
+        @Validated
+        public void create(String name, @Valid(rule = ORGANIZATION_RULE) Organization organization) {
+        }
+    }
+}
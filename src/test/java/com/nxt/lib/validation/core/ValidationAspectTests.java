@@ -0,0 +1,164 @@
+package com.nxt.lib.validation.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationAspectTests {
+
+    private static final String ITEM_RULE = "rules/probe_item.json";
+
+    private Service service;
+
+    private Service proxy;
+
+    @BeforeEach
+    void setUp() {
+        service = new Service();
+        AspectJProxyFactory factory = new AspectJProxyFactory(service);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ValidationAspect());
+        proxy = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RuleRegistry.invalidateAll();
+    }
+
+    @Test
+    void invalidArgumentThrowsBeforeInvocation() {
+        ValidationException exception = assertThrows(ValidationRejectedException.class, () -> proxy.sync(probe(null)));
+        assertEquals(Map.of("a", "a must be not null"), exception.getMessages());
+        assertEquals(0, exception.getStackTrace().length);
+        assertEquals(0, service.calls);
+        assertEquals("a", proxy.sync(probe("a")));
+        assertEquals(1, service.calls);
+    }
+
+    @Test
+    void futureIsValidatedAfterInvocation() {
+        CompletableFuture<FailFastTests.Probe> argument = new CompletableFuture<>();
+        CompletableFuture<String> result = proxy.future(argument);
+        // Invoked before the value is available
+        assertEquals(1, service.calls);
+        argument.complete(probe(null));
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(ValidationException.class, exception.getCause());
+
+        assertEquals("a", assertDoesNotThrow(() -> proxy.future(CompletableFuture.completedFuture(probe("a"))).get()));
+    }
+
+    @Test
+    void futureSubclassKeepsDeclaredType() {
+        Tracked<FailFastTests.Probe> argument = new Tracked<>();
+        proxy.tracked(argument);
+        Tracked<FailFastTests.Probe> received = assertInstanceOf(Tracked.class, service.received);
+        assertNotSame(argument, received);
+        argument.complete(probe("a"));
+        assertEquals("a", assertDoesNotThrow(() -> received.get()).getA());
+
+        assertThrows(IllegalStateException.class, () -> proxy.plain(new Plain<>()));
+        assertEquals(1, service.calls);
+    }
+
+    @Test
+    void cancellingReplacementCancelsArgument() {
+        CompletableFuture<FailFastTests.Probe> argument = new CompletableFuture<>();
+        proxy.future(argument);
+        service.received.cancel(true);
+        assertTrue(argument.isCancelled());
+    }
+
+    @Test
+    void monoSignalsErrorOnSubscription() {
+        Mono<String> result = proxy.mono(Mono.just(probe(null)));
+        assertEquals(1, service.calls);
+        assertThrows(ValidationException.class, result::block);
+        assertEquals("a", proxy.mono(Mono.just(probe("a"))).block());
+    }
+
+    @Test
+    void fluxSignalsErrorAtInvalidElement() {
+        assertEquals(List.of("a", "b"), proxy.flux(Flux.just(probe("a"), probe("b"))).collectList().block());
+        Flux<String> result = proxy.flux(Flux.just(probe("a"), probe(null)));
+        ValidationException exception = assertThrows(ValidationException.class, result::blockLast);
+        assertEquals(Map.of("[1].a", "a must be not null"), exception.getMessages());
+    }
+
+    private static FailFastTests.Probe probe(String a) {
+        return new FailFastTests.Probe(a, null, null);
+    }
+
+    /**
+     * Bean with a {@code @Validated} method per parameter kind, counting invocations
+     * */
+    public static class Service {
+
+        private int calls;
+
+        private CompletableFuture<FailFastTests.Probe> received;
+
+        @Validated
+        public String sync(@Valid(rule = ITEM_RULE) FailFastTests.Probe probe) {
+            calls++;
+            return probe.getA();
+        }
+
+        @Validated
+        public CompletableFuture<String> future(@Valid(rule = ITEM_RULE) CompletableFuture<FailFastTests.Probe> probe) {
+            calls++;
+            received = probe;
+            return probe.thenApply(FailFastTests.Probe::getA);
+        }
+
+        @Validated
+        public void tracked(@Valid(rule = ITEM_RULE) Tracked<FailFastTests.Probe> probe) {
+            calls++;
+            received = probe;
+        }
+
+        @Validated
+        public void plain(@Valid(rule = ITEM_RULE) Plain<FailFastTests.Probe> probe) {
+            calls++;
+        }
+
+        @Validated
+        public Mono<String> mono(@Valid(rule = ITEM_RULE) Mono<FailFastTests.Probe> probe) {
+            calls++;
+            return probe.map(FailFastTests.Probe::getA);
+        }
+
+        @Validated
+        public Flux<String> flux(@Valid(rule = ITEM_RULE) Flux<FailFastTests.Probe> probe) {
+            calls++;
+            return probe.map(FailFastTests.Probe::getA);
+        }
+    }
+
+    /**
+     * Future subclass creating its dependent futures of its own class
+     * */
+    public static class Tracked<T> extends CompletableFuture<T> {
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new Tracked<>();
+        }
+    }
+
+    /**
+     * Future subclass whose dependent futures are plain {@code CompletableFuture}
+     * */
+    public static class Plain<T> extends CompletableFuture<T> {}
+}
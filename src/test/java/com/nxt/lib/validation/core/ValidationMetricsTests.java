@@ -0,0 +1,49 @@
+package com.nxt.lib.validation.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationMetricsTests {
+
+    private static final String ITEM_RULE = "rules/probe_item.json";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ValidationMetrics.setRegistry(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ValidationMetrics.setRegistry(null);
+    }
+
+    @Test
+    void suppressionOnlyAffectCurrentThread() {
+        CompiledRule rule = RuleRegistry.getValidator(ITEM_RULE);
+        FailFastTests.Probe probe = new FailFastTests.Probe("a", null, null);
+        ValidationMetrics.suppress();
+        try {
+            rule.validate(probe);
+            CompletableFuture.runAsync(() -> rule.validate(probe)).join();
+        } finally {
+            ValidationMetrics.resume();
+        }
+        double suppressed = evaluations();
+        rule.validate(probe);
+        assertTrue(suppressed > 0);
+        assertEquals(2 * suppressed, evaluations());
+    }
+
+    private double evaluations() {
+        return registry.find(ValidationMetrics.EVALUATIONS).counters().stream().mapToDouble(Counter::count).sum();
+    }
+}